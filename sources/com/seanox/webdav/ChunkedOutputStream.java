@@ -0,0 +1,117 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ *  ChunkedOutputStream &uuml;bertr&auml;gt Daten mit unbekannter L&auml;nge
+ *  per <code>Transfer-Encoding: chunked</code> (HTTP/1.1). Jeder Schreibzugriff
+ *  wird als eigener Block &uuml;bertragen, daher sollte der Datenstrom gepuffert
+ *  verwendet werden. Mit {@link #finish()} wird der abschliessende Block
+ *  geschrieben, der zugrunde liegende Datenstrom bleibt dabei offen.<br>
+ *  <br>
+ *  ChunkedOutputStream 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class ChunkedOutputStream extends FilterOutputStream {
+
+    /** Zeilenumbruch der Bl&ouml;cke */
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /** abschliessender Block */
+    private static final byte[] TERMINATOR = {'0', '\r', '\n', '\r', '\n'};
+
+    /** Option wenn der abschliessende Block geschrieben wurde */
+    private boolean finished;
+
+    /**
+     *  Konstruktor, richtet den ChunkedOutputStream ein.
+     *  @param output zugrunde liegender Datenstrom
+     */
+    ChunkedOutputStream(OutputStream output) {
+
+        super(output);
+    }
+
+    /**
+     *  Schreibt das Byte als eigenen Block.
+     *  @param  code Byte
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    public void write(int code) throws IOException {
+
+        this.write(new byte[] {(byte)code}, 0, 1);
+    }
+
+    /**
+     *  Schreibt den angegebenen Bereich der Daten als Block.
+     *  @param  bytes  Daten
+     *  @param  offset Beginn vom Bereich
+     *  @param  length L&auml;nge vom Bereich
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+
+        if (this.finished) throw new IOException("Stream already finished");
+
+        //leere Bloecke wuerden das Ende der Daten anzeigen
+        if (length <= 0) return;
+
+        this.out.write(Integer.toHexString(length).getBytes("ASCII"));
+        this.out.write(ChunkedOutputStream.CRLF);
+        this.out.write(bytes, offset, length);
+        this.out.write(ChunkedOutputStream.CRLF);
+    }
+
+    /**
+     *  Schreibt den abschliessenden Block, ohne den zugrunde liegenden
+     *  Datenstrom zu schliessen.
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    void finish() throws IOException {
+
+        if (this.finished) return;
+
+        this.finished = true;
+
+        this.out.write(ChunkedOutputStream.TERMINATOR);
+        this.out.flush();
+    }
+
+    /**
+     *  Schreibt den abschliessenden Block und schliesst den Datenstrom.
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    public void close() throws IOException {
+
+        this.finish();
+
+        super.close();
+    }
+}
\ No newline at end of file
@@ -30,11 +30,23 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardCopyOption;
 import java.text.DecimalFormat;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Hashtable;
@@ -44,6 +56,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -64,7 +78,10 @@ import com.seanox.module.Request;
 import com.seanox.module.http.Context;
 import com.seanox.module.http.Process;
 import com.seanox.webdav.storage.AbstractStore;
+import com.seanox.webdav.storage.Attributes;
+import com.seanox.webdav.storage.Directory;
 import com.seanox.webdav.storage.Store;
+import com.seanox.webdav.storage.lock.Token;
 import com.seanox.xml.Stream;
 
 /**
@@ -119,8 +136,9 @@ import com.seanox.xml.Stream;
  *      m&ouml;glich ist.
  *    </li>
  *    <li>
- *      Das bewusste Sperren (LOCK) und Entsperren (UNLOCK) von Ressourcen wird
- *      nicht unterst&uuml;tzt.
+ *      Das bewusste Sperren (LOCK) wird nur als Schreibsperre unterst&uuml;tzt.
+ *      Die Sperren werden nur mit der Option <code>JOURNAL</code> dauerhaft
+ *      gespeichert, sonst mit dem Beenden vom Modul aufgehoben.
  *    </li>
  *    <li>
  *      Alle Zugriffe werden als Transaktion betrachtet, die jedoch in der
@@ -188,6 +206,12 @@ public class Connector extends Context {
     /** Konstante f&uuml;r die Methode DELETE */
     private static final String METHOD_DELETE = "DELETE";
 
+    /** Konstante f&uuml;r die Methode LOCK */
+    private static final String METHOD_LOCK = "LOCK";
+
+    /** Konstante f&uuml;r die Methode UNLOCK */
+    private static final String METHOD_UNLOCK = "UNLOCK";
+
     /** Konstante f&uuml;r PROPFIND - Specify a property mask */
     private static final int FIND_BY_PROPERTY = 0;
 
@@ -197,8 +221,20 @@ public class Connector extends Context {
     /** Konstante f&uuml;r PROPFIND - Property names */
     private static final int FIND_PROPERTY_NAMES = 2;
     
-    /** Konstante f&uuml;r die max. Tiefe bei unbegrenzter Verarbeitungstiefe */
-    private static final int INFINITY = 3;
+    /** Konstante f&uuml;r die unbegrenzte Verarbeitungstiefe */
+    private static final int INFINITY = Integer.MAX_VALUE;
+    
+    /** Konstante f&uuml;r die Standardlebensdauer von Sperren in Sekunden */
+    private static final long LOCK_TIMEOUT = 3600;
+    
+    /** Konstante f&uuml;r die maximale Lebensdauer von Sperren in Sekunden */
+    private static final long LOCK_TIMEOUT_MAXIMUM = 604800;
+    
+    /** Konstante f&uuml;r die maximale Gr&ouml;sse vom vorab gelesenen Inhalt */
+    private static final int CONTENT_LIMIT = 65536;
+    
+    /** Konstante f&uuml;r die maximale Anzahl der Bereiche per Range */
+    private static final int RANGE_LIMIT = 32;
 
     /** Konstante der Anwendungsversion */
     public static final String VERSION = "@@@ant-project-version";
@@ -373,38 +409,124 @@ public class Connector extends Context {
     }
 
     /**
-     *  Geht f&uuml;r PROPFIND rekursiv durch alle Verzeichnisse.
-     *  @param  path       aktueller Pfad
+     *  Durchl&auml;uft f&uuml;r PROPFIND alle Verzeichnisse bis zur angegeben
+     *  Tiefe. Statt einer Rekursion wird ein Stapel offener Verzeichnisse
+     *  verwendet, womit auch eine unbegrenzte Tiefe mit konstantem Speicher
+     *  je Verzeichnisebene verarbeitet wird. Die Attribute der Eintr&auml;ge
+     *  werden dabei ggf. parallel &uuml;ber den Pool ermittelt, die Ausgabe
+     *  erfolgt in der Reihenfolge vom Verzeichnis. Wird die maximale Anzahl
+     *  von Eintr&auml;gen oder die maximale Dauer erreicht, wird der Durchlauf
+     *  abgebrochen.
      *  @param  process    Process
      *  @param  xml        XML Datenstrom
      *  @param  store      Store
+     *  @param  pool       Pool oder <code>null</code>
+     *  @param  path       Pfad der Ressource
      *  @param  type       PROPFIND Typ
      *  @param  properties Properties
      *  @param  depth      Tiefe
+     *  @param  entries    max. Anzahl der Eintr&auml;ge, <code>0</code> ohne
+     *                     Begrenzung
+     *  @param  duration   max. Dauer in Millisekunden, <code>0</code> ohne
+     *                     Begrenzung
+     *  @return <code>true</code>, wenn alle Eintr&auml;ge ausgegeben wurden,
+     *          <code>false</code> beim Abbruch des Durchlaufs
      *  @throws IOException bei fehlerhaftem Zugriff auf den Store
      */
-    private static void recursiveParseProperties(Process process, Stream xml,
-        Store store, String path, int type, Properties properties, int depth) throws IOException {
-    
-        String   target;
+    private static boolean traverseProperties(Process process, Stream xml, Store store, ForkJoinPool pool,
+        String path, int type, Properties properties, int depth, long entries, long duration) throws IOException {
     
-        String[] names;
+        ArrayDeque<Traversal> stack;
+        Attributes            attributes;
+        Directory             directory;
+        Traversal             traversal;
+        
+        long                  count;
+        long                  timeout;
+        int                   window;
+        
+        attributes = store.getAttributes(path);
     
-        Connector.parseProperties(process, xml, store, path, type, properties);
-
-        if (depth <= 0) return;
-
-        names = store.getChildrenNames(path);
+        Connector.parseProperties(process, xml, store, path, attributes, type, properties);
 
-        if (names != null) {
+        if (depth <= 0 || attributes == null || !attributes.isFolder()) return true;
 
-            target = path.endsWith("/") ? path : path.concat("/");
-
-            for (String name : names) {
-
-                Connector.recursiveParseProperties(process, xml, store, target.concat(name), type, properties, depth -1);
+        //das Fenster vom Vorauslesen wird aus der Parallelitaet abgeleitet
+        window  = pool == null ? 1 : pool.getParallelism() *4;
+        timeout = duration > 0 ? System.currentTimeMillis() +duration : Long.MAX_VALUE;
+        stack   = new ArrayDeque<Traversal>();
+        
+        try {
+            
+            //die Eintraege werden mit den Attributen direkt vom Cursor gelesen
+            directory = store.openDirectory(path);
+    
+            if (directory == null) return true;
+            
+            stack.push(new Traversal(store, pool, window, path, directory, depth -1));
+        
+            for (count = 1; !stack.isEmpty();) {
+                
+                traversal = stack.peek();
+                
+                if (!traversal.next()) {
+                    
+                    stack.pop().close();
+                    
+                    continue;
+                }
+                
+                attributes = traversal.getAttributes();
+                
+                //zwischenzeitlich entfernte Eintraege werden ignoriert
+                if (attributes == null) continue;
+                
+                //bei erreichter Begrenzung wird der Durchlauf abgebrochen
+                if ((entries > 0 && count >= entries) || System.currentTimeMillis() > timeout) return false;
+                
+                Connector.parseProperties(process, xml, store, traversal.getPath(), attributes, type, properties);
+                
+                count++;
+                
+                if (traversal.depth <= 0 || !attributes.isFolder()) continue;
+                
+                directory = store.openDirectory(traversal.getPath());
+                
+                if (directory != null) stack.push(new Traversal(store, pool, window, traversal.getPath(), directory, traversal.depth -1));
+            }
+            
+        } finally {
+            
+            while (!stack.isEmpty()) {
+                
+                try {stack.pop().close();
+                } catch (Throwable throwable) {
+                    
+                    //keine Fehlerbehandlung vorgesehen
+                }
             }
         }
+        
+        return true;
+    }
+    
+    /**
+     *  Ermittelt die Adresse (href) der Ressource f&uuml;r die Ausgabe.
+     *  @param  process Process
+     *  @param  path    Pfad der Ressource
+     *  @return die Adresse der Ressource f&uuml;r die Ausgabe
+     */
+    private static String getResourceHref(Process process, String path) {
+        
+        String resource;
+        
+        resource = process.environment.get("path_absolute");
+        
+        if (!resource.startsWith("/")) resource = ("/").concat(resource);
+        if (!resource.endsWith("/") && !path.startsWith("/")) resource = resource.concat("/");
+        if (resource.endsWith("/") && path.startsWith("/")) resource = resource.substring(0, resource.length() -1);
+
+        return Connector.escapeOutput(Connector.rewriteUrl(resource.concat(path)));
     }
     
     /**
@@ -522,6 +644,263 @@ public class Connector extends Context {
         return depth;
     }
 
+    /**
+     *  R&uuml;ckgabe der &uuml;bermittelten Lebensdauer einer Sperre (Timeout)
+     *  in Millisekunden. Ohne g&uuml;ltige Angabe wird die Standardlebensdauer
+     *  verwendet, unbegrenzte und zu grosse Angaben werden auf die maximale
+     *  Lebensdauer begrenzt.
+     *  @param  request Request
+     *  @return die Lebensdauer der Sperre in Millisekunden
+     */
+    private static long getTimeout(Request request) {
+        
+        String          string;
+        StringTokenizer tokenizer;
+        
+        long            timeout;
+        
+        string = request.getHeaderField("Timeout");
+        
+        tokenizer = new StringTokenizer(string == null ? "" : string, ",");
+        
+        //die erste gueltige Angabe wird verwendet
+        while (tokenizer.hasMoreTokens()) {
+            
+            string = tokenizer.nextToken().trim();
+            
+            if (string.equalsIgnoreCase("infinite")) return Connector.LOCK_TIMEOUT_MAXIMUM *1000;
+            
+            if (!string.toLowerCase().startsWith("second-")) continue;
+            
+            try {timeout = Long.parseLong(string.substring(7).trim());
+            } catch (NumberFormatException exception) {
+                continue;
+            }
+            
+            if (timeout > 0) return Math.min(timeout, Connector.LOCK_TIMEOUT_MAXIMUM) *1000;
+        }
+        
+        return Connector.LOCK_TIMEOUT *1000;
+    }
+
+    /**
+     *  Ermittelt die per Range angeforderten Bereiche einer Ressource. Die
+     *  Bereiche werden als Array mit Beginn und Ende (inklusive) aufsteigend
+     *  sortiert zur&uuml;ckgegeben, &uuml;berlappende und angrenzende
+     *  Bereiche werden dabei zusammengefasst. Ist der Header nicht gesetzt,
+     *  ung&uuml;ltig oder verbleiben zu viele Bereiche, wird
+     *  <code>null</code> zur&uuml;ckgegeben und Range wird ignoriert. Eine
+     *  leere Liste zeigt an, dass keiner der Bereiche erf&uuml;llbar ist.
+     *  @param  range  Wert vom Header Range
+     *  @param  length L&auml;nge der Ressource
+     *  @return die angeforderten Bereiche, sonst <code>null</code>
+     */
+    private static List<long[]> getRanges(String range, long length) {
+        
+        List<long[]> ranges;
+        String       first;
+        String       last;
+        
+        long         start;
+        long         end;
+        int          cursor;
+        
+        range = range == null ? "" : range.trim();
+        
+        if (!range.toLowerCase().startsWith("bytes=")) return null;
+        
+        ranges = new ArrayList<long[]>();
+        
+        for (String entry : range.substring(6).split(",")) {
+            
+            entry = entry.trim();
+            
+            if (entry.length() == 0) continue;
+            
+            cursor = entry.indexOf('-');
+            
+            if (cursor < 0) return null;
+            
+            first = entry.substring(0, cursor).trim();
+            last  = entry.substring(cursor +1).trim();
+            
+            try {
+                
+                if (first.length() == 0) {
+                    
+                    //Suffix-Bereich, die letzten n Bytes
+                    if (last.length() == 0) return null;
+                    
+                    start = Math.max(0, length -Long.parseLong(last));
+                    end   = length -1;
+                    
+                } else {
+                    
+                    start = Long.parseLong(first);
+                    end   = last.length() == 0 ? length -1 : Long.parseLong(last);
+                    
+                    if (start < 0 || end < start) return null;
+                    
+                    end = Math.min(end, length -1);
+                }
+                
+            } catch (NumberFormatException exception) {
+                
+                return null;
+            }
+            
+            //nicht erfuellbare Bereiche werden ignoriert
+            if (start >= length || start > end) continue;
+            
+            ranges.add(new long[] {start, end});
+        }
+        
+        if (ranges.size() <= 1) return ranges;
+        
+        Collections.sort(ranges, new Comparator<long[]>() {
+            
+            public int compare(long[] range, long[] other) {
+                
+                return range[0] < other[0] ? -1 : range[0] > other[0] ? 1 : 0;
+            }
+        });
+        
+        //ueberlappende und angrenzende Bereiche werden zusammengefasst
+        for (cursor = 1; cursor < ranges.size();) {
+            
+            if (ranges.get(cursor)[0] > ranges.get(cursor -1)[1] +1) cursor++;
+            else ranges.get(cursor -1)[1] = Math.max(ranges.get(cursor -1)[1], ranges.remove(cursor)[1]);
+        }
+        
+        //bei zu vielen Bereichen wird die komplette Ressource gesendet
+        if (ranges.size() > Connector.RANGE_LIMIT) return null;
+        
+        return ranges;
+    }
+
+    /**
+     *  Vergleicht die ETags vom Header mit dem ETag der Ressource. Der
+     *  schwache Vergleich erfolgt ohne Beachtung vom Pr&auml;fix
+     *  <code>W/</code>, beim starken Vergleich treffen schwache ETags nie zu.
+     *  Ein leerer Header trifft nicht zu.
+     *  @param  header Wert vom Header mit einer Liste von ETags oder
+     *                 <code>*</code>
+     *  @param  etag   ETag der Ressource
+     *  @param  strong <code>true</code> f&uuml;r den starken Vergleich
+     *  @return <code>true</code>, wenn eines der ETags zutrifft
+     */
+    private static boolean matchETag(String header, String etag, boolean strong) {
+        
+        header = header == null ? "" : header.trim();
+        
+        if (header.length() == 0) return false;
+        if (header.equals("*")) return true;
+
+        if (strong && etag.startsWith("W/")) return false;
+        
+        if (etag.startsWith("W/")) etag = etag.substring(2);
+        
+        for (String entry : header.split(",")) {
+            
+            entry = entry.trim();
+            
+            if (strong && entry.startsWith("W/")) continue;
+            
+            if (entry.startsWith("W/")) entry = entry.substring(2);
+            
+            if (entry.equals(etag)) return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     *  Pr&uuml;ft f&uuml;r GET und HEAD die Bedingungen If-None-Match und
+     *  If-Modified-Since. Ist If-None-Match angegeben, wird If-Modified-Since
+     *  ignoriert. Nicht interpretierbare Zeitangaben werden ignoriert.
+     *  @param  process    Process
+     *  @param  attributes Momentaufnahme der Attribute der Ressource
+     *  @return <code>true</code>, wenn die Ressource unver&auml;ndert ist
+     */
+    private static boolean isNotModified(Process process, Attributes attributes) {
+        
+        SimpleDateFormat pattern;
+        String           string;
+        
+        string = process.request.getHeaderField("If-None-Match");
+        
+        if (string != null && string.trim().length() > 0) return Connector.matchETag(string, attributes.getETag(), false);
+        
+        string = process.request.getHeaderField("If-Modified-Since");
+        
+        if (string == null || string.trim().length() == 0) return false;
+        
+        pattern = new SimpleDateFormat("E, dd MMM yyyy HH:mm:ss z", Locale.US);
+        pattern.setTimeZone(TimeZone.getTimeZone("GMT"));
+        
+        //die Zeitangaben werden sekundengenau verglichen
+        try {return attributes.getLastModified().getTime() /1000 <= pattern.parse(string.trim()).getTime() /1000;
+        } catch (ParseException exception) {
+            
+            return false;
+        }
+    }
+
+    /**
+     *  Pr&uuml;ft, ob die Verbindung nach der Antwort bestehen bleibt. Das ist
+     *  der Fall, wenn die Option KEEPALIVE aktiviert ist, der Client HTTP/1.1
+     *  verwendet und die Verbindung nicht per <code>Connection: close</code>
+     *  beenden will.
+     *  @param  process    Process
+     *  @param  parameters Konfiguration
+     *  @return <code>true</code>, wenn die Verbindung bestehen bleibt
+     */
+    private static boolean isPersistent(Process process, Map<String, String> parameters) {
+        
+        String string;
+        
+        string = parameters.get(AbstractStore.PARAMETER_KEEPALIVE);
+        
+        if (string == null || !string.trim().equalsIgnoreCase("on")) return false;
+        
+        string = process.environment.get("server_protocol");
+        
+        if (!string.trim().equalsIgnoreCase("HTTP/1.1")) return false;
+        
+        string = process.request.getHeaderField("Connection");
+        
+        return string == null || !string.trim().equalsIgnoreCase("close");
+    }
+    
+    /**
+     *  Richtet den Datenstrom f&uuml;r Antworten mit vorab unbekannter
+     *  L&auml;nge ein. Bei bestehen bleibender Verbindung wird die Antwort
+     *  per <code>Transfer-Encoding: chunked</code> &uuml;bertragen, sonst wird
+     *  die Verbindung mit der Antwort beendet.
+     *  @param  process    Process
+     *  @param  parameters Konfiguration
+     *  @return der Datenstrom der Antwort
+     */
+    private static OutputStream openBody(Process process, Map<String, String> parameters) {
+        
+        if (!Connector.isPersistent(process, parameters)) return process.response;
+        
+        process.response.setHeaderField("Transfer-Encoding", "chunked");
+        
+        return new ChunkedOutputStream(process.response);
+    }
+    
+    /**
+     *  Schliesst die Antwort ab, welche mit {@link #openBody(Process, Map)}
+     *  eingerichtet wurde. Der Datenstrom der Response bleibt dabei offen.
+     *  @param  output Datenstrom der Antwort
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    private static void finishBody(OutputStream output) throws IOException {
+        
+        if (output instanceof ChunkedOutputStream) ((ChunkedOutputStream)output).finish();
+    }
+
     /**
      *  Entfernt das Slash am Ende von Pfaden, wenn diese existiert.
      *  @param  path Pfad
@@ -575,14 +954,66 @@ public class Connector extends Context {
     }
 
     /**
-     *  List das mit dem Request &uuml;bergebene XML Dokument aus.
+     *  Liest den Inhalt vom Request vorab vollst&auml;ndig ein. Bei bestehen
+     *  bleibender Verbindung darf kein ungelesener Inhalt verbleiben, da dieser
+     *  sonst als n&auml;chster Request interpretiert wird. Inhalte unbekannter
+     *  L&auml;nge, oberhalb von <code>CONTENT_LIMIT</code> oder mit
+     *  <code>Expect</code> werden nicht gelesen, die Verbindung wird dann mit
+     *  der Antwort beendet.
+     *  @param  process Process
+     *  @param  target  Target
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datenstr&ouml;me
+     */
+    private static void readContent(Process process, Target target) throws IOException {
+        
+        OutputStream buffer;
+        String       string;
+        
+        byte[]       bytes;
+        
+        int          volume;
+        int          length;
+        int          size;
+        
+        length = process.request.getContentLength();
+        string = process.request.getHeaderField("Transfer-Encoding");
+        
+        if (length <= 0 && (string == null || string.trim().length() == 0)) return;
+        
+        string = process.request.getHeaderField("Expect");
+        
+        if (length <= 0 || length > Connector.CONTENT_LIMIT || (string != null && string.trim().length() > 0)) {
+            
+            process.response.setHeaderField("Connection", "close");
+            
+            return;
+        }
+        
+        buffer = new ByteArrayOutputStream(length);
+        
+        bytes = new byte[Math.min(length, (process.blocksize <= 0) ? 65535 : process.blocksize)];
+        
+        for (volume = 0; volume < length && (size = process.request.read(bytes, 0, Math.min(bytes.length, length -volume))) >= 0;) {
+            
+            volume += size;
+            
+            buffer.write(bytes, 0, size);
+        }
+        
+        target.content = ((ByteArrayOutputStream)buffer).toByteArray();
+    }
+
+    /**
+     *  List das mit dem Request &uuml;bergebene XML Dokument aus. Wurde der
+     *  Inhalt vom Request vorab gelesen, wird dieser verwendet.
      *  @param  process Process
+     *  @param  target  Target
      *  @return das ausgelesen XML Dokument
      *  @throws IOException bei fehlerfahftem Zuriff auf die Datenstr&ouml;me
      *  @throws SAXException bei fehlerfahftr XML-Verarbeitung
      *  @throws ParserConfigurationException bei fehlerfahftr XML-Verarbeitung
      */
-    private static Document readDocument(Process process) throws IOException,
+    private static Document readDocument(Process process, Target target) throws IOException,
         SAXException, ParserConfigurationException {
 
         DocumentBuilderFactory factory;
@@ -596,6 +1027,12 @@ public class Connector extends Context {
 
         if ((length = process.request.getContentLength()) <= 0) return null;
 
+        factory = DocumentBuilderFactory.newInstance();
+
+        factory.setNamespaceAware(true);
+
+        if (target.content != null) return factory.newDocumentBuilder().parse(new ByteArrayInputStream(target.content));
+
         buffer = new ByteArrayOutputStream();
 
         bytes = new byte[(process.blocksize <= 0) ? 65535 : process.blocksize];
@@ -607,10 +1044,6 @@ public class Connector extends Context {
             buffer.write(bytes, 0, size);
         }
 
-        factory = DocumentBuilderFactory.newInstance();
-
-        factory.setNamespaceAware(true);
-
         return factory.newDocumentBuilder().parse(new ByteArrayInputStream(((ByteArrayOutputStream)buffer).toByteArray()));
     }
 
@@ -661,15 +1094,16 @@ public class Connector extends Context {
      *  Ermittelt die Dateiinformationen zur angegebenen Ressource.
      *  @param  store   Store
      *  @param  path    Ressource
-     *  @param  childs  Childs
+     *  @param  childs  Cursor &uuml;ber die Childs
      *  @param  assign  Sortierung
      *  @param  hidden  Option zum Ausblenden von nicht sichbaren Dateien
      *  @return die Dateiinformationen zur angegebenen Ressource
      *  @throws IOException bei Fehlern im Zusammenhang mit dem Datenzugriff
      */
     private static List<String> getDirectoryChildsInfos(Store store, String path,
-            String[] childs, int[] assign, boolean hidden) throws IOException {
+            Directory childs, int[] assign, boolean hidden) throws IOException {
         
+        Attributes    attributes;
         List<String>  storage;
         String        string;
         StringBuilder filter;
@@ -684,7 +1118,7 @@ public class Connector extends Context {
         filter  = new StringBuilder();
         
         //die Dateiliste wird ermittelt
-        for (String child : childs) {
+        while (childs.next()) {
                 
             //die Dateiinformationen werden zusammengestellt
             
@@ -693,23 +1127,27 @@ public class Connector extends Context {
             //0 - base, 1 - name, 2 - sort, 3 - date, 4 - size, 5 - type
 
             //der Name fuer die Ausgabe wird ermittelt
-            entries[1] = child;
+            entries[1] = childs.getName();
 
             //der Name fuer die Sortierung wird ermittelt
             entries[2] = entries[1].toLowerCase();
             
-            child = path.concat(child);
+            //die Attribute werden als Momentaufnahme ermittelt
+            attributes = childs.getAttributes();
+            
+            //zwischenzeitlich entfernte Eintraege werden ignoriert
+            if (attributes == null) continue;
             
             //Eintraegte der Option "versteckt" werden ggf. ignoriert
-            if (hidden && store.isHidden(child)) continue;
+            if (hidden && attributes.isHidden()) continue;
 
-            option = store.isFolder(child);
+            option = attributes.isFolder();
 
             //der Zeitpunkt der letzten Aenderung wird ermittelt
-            entries[3] = Connector.formatDate("yyyy-MM-dd HH:mm:ss", store.getLastModified(child), null);
+            entries[3] = Connector.formatDate("yyyy-MM-dd HH:mm:ss", attributes.getLastModified(), null);
 
             //die Groesse wird ermittelt, nicht aber bei Verzeichnissen
-            string = (option) ? "-" : new DecimalFormat("#,###").format(store.getResourceLength(child));
+            string = (option) ? "-" : new DecimalFormat("#,###").format(attributes.getLength());
 
             //die Groesse wird an der ersten Stelle mit dem Character
             //erweitert welches sich aus der Laenge der Groesse ergibt um
@@ -861,12 +1299,14 @@ public class Connector extends Context {
      *  Verzeichnis.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @return das Verzeichnis als navigierbares HTML
      *  @throws IOException beim fehlerhaften Zugriff auf den Store
      */
     @SuppressWarnings("unchecked")
-    private static byte[] getDirectory(Process process, Store store) throws IOException {
+    private static byte[] getDirectory(Process process, Store store, Target target) throws IOException {
 
+        Directory                 directory;
         OutputStream              structure;
         Enumeration<String>       enumeration;
         Generator                 generator;
@@ -955,14 +1395,23 @@ public class Connector extends Context {
         }
 
         //der Pfad wird ermittelt
-        path = Connector.getProcessResourcePath(process);
+        path = target.path;
         
         //die Sichbarkeit nicht sichbarer Eintraege wird ermittelt
         hidden = process.options.get("index").toUpperCase().indexOf("[S]") >= 0; 
 
         //die Dateiliste wird ermittelt
-        entries = store.getChildrenNames(path);
-        storage = Connector.getDirectoryChildsInfos(store, path, entries, assign, hidden);
+        directory = store.openDirectory(path);
+        
+        if (directory != null) {
+            
+            try {storage = Connector.getDirectoryChildsInfos(store, path, directory, assign, hidden);
+            } finally {
+                
+                directory.close();
+            }
+            
+        } else storage = new ArrayList<String>();
                 
         //die Dateiliste wird sortiert
         Collections.sort(storage);
@@ -1038,62 +1487,96 @@ public class Connector extends Context {
      *  Ressource.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doOptions(Process process, Store store) throws IOException {
+    private static void doOptions(Process process, Store store, Target target) throws IOException {
 
-        String path;
-        
-        path = Connector.getProcessResourcePath(process);
-        
         process.response.setHeaderField("DAV", "1, 2");
-        process.response.setHeaderField("Allow", Connector.determineMethodsAllowed(process, store, path));
+        process.response.setHeaderField("Allow", Connector.determineMethodsAllowed(store, target));
         process.response.setHeaderField("MS-Author-Via", "DAV");
     }
     
     /**
      *  Ermittelt die Eigenschaften der im Request angegebenen Ressource.
-     *  @param  process Process
-     *  @param  store   Store
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  pool       Pool oder <code>null</code>
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      *  @throws ParserConfigurationException  bei fehlerhafter XML Verarbeitung
      *          des Request-Bodys
      */
-    private static void doPropfind(Process process, Store store)
+    private static void doPropfind(Process process, Store store, Target target, ForkJoinPool pool, Map<String, String> parameters)
         throws IOException, ParserConfigurationException {
 
-        Document   document;
-        Element    root;
-        Node       child;
-        Node       node;
-        NodeList   childs;
-        Properties properties;
-        String     path;
-        Stream     stream;
-        String     space;
-        String     name;
-
-        int        depth;
-        int        loop;
-        int        type;
-
-        space = Connector.DEFAULT_XML_NAMESPACE;
-        depth = Connector.getDepth(process.request);        
-        path  = Connector.getProcessResourcePath(process);
+        Attributes   attributes;
+        Document     document;
+        Element      root;
+        Node         child;
+        Node         node;
+        NodeList     childs;
+        OutputStream output;
+        Properties   properties;
+        String       path;
+        Stream       stream;
+        String       space;
+        String       string;
+        String       name;
+
+        boolean      complete;
+        int          depth;
+        int          loop;
+        int          type;
+
+        space  = Connector.DEFAULT_XML_NAMESPACE;
+        depth  = Connector.getDepth(process.request);        
+        path   = target.path;
+        string = parameters.get(AbstractStore.PARAMETER_INFINITY);
+        
+        //ohne unbegrenzte Tiefe wird diese mit propfind-finite-depth abgelehnt
+        if (depth == Connector.INFINITY && string != null && string.trim().equalsIgnoreCase("off")) {
+            
+            process.response.setStatus(Status.FORBIDDEN);
+            process.response.setMessage(Status.getMessage(process.response.getStatus()));
+            process.response.setHeaderField("Content-Type", "text/xml; charset=UTF-8");
+            
+            output = Connector.openBody(process, parameters);
+            stream = new Stream(new BufferedOutputStream(output, (process.blocksize <= 0) ? 65535 : process.blocksize));
+            
+            stream.writeXmlHeader();
+            stream.writeElement(space, ("error").concat(Connector.DEFAULT_XML_NAMESPACE_DECLARATION), Stream.OPENING);
+            stream.writeElement(space, "propfind-finite-depth", Stream.EMPTY);
+            stream.writeElement(space, "error", Stream.CLOSING);
+            
+            stream.flush();
+            
+            Connector.finishBody(output);
+            
+            return;
+        }
         
         if (!store.lock(path, false)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
         try {
         
-            if (!store.existsObject(path)) {Connector.forceStatus(process, Status.NOT_FOUND); return;}
+            attributes = target.getAttributes();
+            
+            if (attributes == null) {Connector.forceStatus(process, Status.NOT_FOUND); return;}
+            
+            //If-None-Match wird ausserhalb von GET/HEAD mit 412 beantwortet
+            string = process.request.getHeaderField("If-None-Match");
+            
+            if (Connector.matchETag(string, attributes.getETag(), false)) {Connector.forceStatus(process, Status.PRECONDITION_FAILED); return;}
             
             node = null;
-            path = Connector.getCleanPath(Connector.getProcessResourcePath(process));
+            path = Connector.getCleanPath(target.path);
             type = Connector.FIND_ALL_PROP;
 
-            document = Connector.readDocument(process);
+            document = Connector.readDocument(process, target);
 
             if (document != null) {
 
@@ -1142,25 +1625,35 @@ public class Connector extends Context {
             process.response.setMessage(Status.getMessage(process.response.getStatus()));
             process.response.setHeaderField("Content-Type", "text/xml; charset=UTF-8");
 
-            stream = new Stream(new BufferedOutputStream(process.response, (process.blocksize <= 0) ? 65535 : process.blocksize));
+            output = Connector.openBody(process, parameters);
+            stream = new Stream(new BufferedOutputStream(output, (process.blocksize <= 0) ? 65535 : process.blocksize));
             
             stream.writeXmlHeader();
             
             stream.writeElement(space, ("multistatus").concat(Connector.DEFAULT_XML_NAMESPACE_DECLARATION), Stream.OPENING);
             
-            if (depth == 0) {
+            complete = Connector.traverseProperties(process, stream, store, pool, path, type, properties, depth,
+                    AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_ENTRIES, 100000),
+                    AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_DURATION, 60000));
             
-                Connector.parseProperties(process, stream, store, path, type, properties);
+            //beim Abbruch wird die Unvollstaendigkeit mit 507 angezeigt
+            if (!complete) {
                 
-            } else {
-            
-                Connector.recursiveParseProperties(process, stream, store, path, type, properties, depth);
+                stream.writeElement(space, "response", Stream.OPENING);
+                stream.writeProperty(space, "href", Connector.getResourceHref(process, path));
+                stream.writeProperty(space, "status", Connector.generateStatusSignature(Status.INSUFFICIENT_STORAGE));
+                stream.writeElement(space, "error", Stream.OPENING);
+                stream.writeElement(space, "number-of-matches-within-limits", Stream.EMPTY);
+                stream.writeElement(space, "error", Stream.CLOSING);
+                stream.writeElement(space, "response", Stream.CLOSING);
             }
             
             stream.writeElement(space, "multistatus", Stream.CLOSING);
             
             stream.flush();
             
+            Connector.finishBody(output);
+            
         } catch (SAXException exception) {
         
             Connector.forceStatus(process, Status.BAD_REQUEST);
@@ -1172,39 +1665,42 @@ public class Connector extends Context {
      *  entsprechend im Request angegebenen Ressourcen. Im Fehlerfall wird ein
      *  Multistatus als Fehlerbericht erstellt.<br>
      *  Hinweis - die Methode ist derzeit nicht implementiert.
-     *  @param  process Process
-     *  @param  store   Store
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      *  @throws ParserConfigurationException  bei fehlerhafter XML Verarbeitung
      *          des Request-Bodys
      */
-    private static void doProppatch(Process process, Store store) 
+    private static void doProppatch(Process process, Store store, Target target, Map<String, String> parameters) 
             throws IOException, ParserConfigurationException {
         
-        Document   document;
-        Element    root;
-        Node       change;
-        Node       remove;
-        Properties changes;
-        Properties properties;
-        Stream     stream;
-        String     path;
-        String     space;
-        String     resource;
+        Document     document;
+        Element      root;
+        Node         change;
+        Node         remove;
+        OutputStream output;
+        Properties   changes;
+        Properties   properties;
+        Stream       stream;
+        String       path;
+        String       space;
+        String       resource;
        
-        int        bits;
+        int          bits;
         
         space = Connector.DEFAULT_XML_NAMESPACE;
-        path  = Connector.getProcessResourcePath(process);
+        path  = target.path;
         
-        if (!store.lock(path, false)) {Connector.forceStatus(process, Status.LOCKED); return;}
+        if (!store.lock(path, true)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
         try {
         
-            if (!store.existsObject(path)) {Connector.forceStatus(process, Status.NOT_FOUND); return;}
+            if (!target.exists()) {Connector.forceStatus(process, Status.NOT_FOUND); return;}
             
-            path = Connector.getCleanPath(Connector.getProcessResourcePath(process));
+            path = Connector.getCleanPath(target.path);
             
             resource = process.environment.get("path_absolute");
 
@@ -1212,11 +1708,11 @@ public class Connector extends Context {
             if (!resource.endsWith("/") && !path.startsWith("/")) resource = resource.concat("/");
             if (resource.endsWith("/") && path.startsWith("/")) resource = resource.substring(0, resource.length() -1);
             
-            if (store.isFolder(path) && !path.endsWith("/")) path = path.concat("/");
+            if (target.isFolder() && !path.endsWith("/")) path = path.concat("/");
 
             resource = resource.concat(path);
 
-            document = Connector.readDocument(process);
+            document = Connector.readDocument(process, target);
             
             if (document != null) {
                 
@@ -1285,7 +1781,8 @@ public class Connector extends Context {
                 process.response.setMessage(Status.getMessage(process.response.getStatus()));
                 process.response.setHeaderField("Content-Type", "text/xml; charset=UTF-8");
                 
-                stream = new Stream(new BufferedOutputStream(process.response, (process.blocksize <= 0) ? 65535 : process.blocksize));
+                output = Connector.openBody(process, parameters);
+                stream = new Stream(new BufferedOutputStream(output, (process.blocksize <= 0) ? 65535 : process.blocksize));
 
                 stream.writeXmlHeader();
                 
@@ -1309,6 +1806,8 @@ public class Connector extends Context {
 
                 stream.flush();                    
                 
+                Connector.finishBody(output);
+                
             } else Connector.forceStatus(process, Status.UNPROCESSABLE_ENTITY);
             
         } catch (SAXException exception) {
@@ -1317,54 +1816,154 @@ public class Connector extends Context {
         }
     }
     
+    /**
+     *  &Uuml;bertr&auml;gt den angegebenen Bereich vom Datenkanal zum Client.
+     *  Ist die Response selbst ein Datenkanal, erfolgt die &Uuml;bertragung
+     *  bei einem FileChannel per <code>transferTo</code>, womit das
+     *  Betriebssystem die Daten ohne Umweg &uuml;ber den Heap &uuml;bertragen
+     *  kann. Sonst werden die Daten blockweise per Datenpuffer direkt in den
+     *  Datenstrom der Response geschrieben, wobei nicht positionierbare
+     *  Datenkan&auml;le bis zur Position vorgespult werden. Die Position darf
+     *  dabei nicht vor der aktuellen Position vom Datenkanal liegen.
+     *  @param  process Process
+     *  @param  channel Datenkanal
+     *  @param  offset  Position vom Beginn des Bereichs
+     *  @param  length  L&auml;nge des Bereichs, <code>-1</code> bis zum Ende
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datenstr&ouml;me
+     */
+    private static void transferContent(Process process, SeekableByteChannel channel, long offset, long length)
+        throws IOException {
+        
+        ByteBuffer          buffer;
+        WritableByteChannel target;
+        
+        byte[]              bytes;
+        
+        long                size;
+        
+        if (length < 0) length = Long.MAX_VALUE;
+        
+        //transferTo wird nur mit einem echten Datenkanal als Ziel verwendet,
+        //ein per Channels.newChannel adaptierter Datenstrom wuerde die Daten
+        //nur in kleinen Bloecken ueber einen weiteren Puffer kopieren
+        if (channel instanceof FileChannel && process.response instanceof WritableByteChannel) {
+            
+            target = (WritableByteChannel)process.response;
+            
+            //transferTo uebertraegt ggf. weniger als angefordert, daher die
+            //Schleife, bei verkuerzten Dateien endet die Uebertragung
+            while (length > 0 && (size = ((FileChannel)channel).transferTo(offset, length, target)) > 0) {
+                
+                offset += size;
+                length -= size;
+            }
+            
+            return;
+        }
+        
+        bytes  = new byte[process.blocksize < 1 ? 65535 : process.blocksize];
+        buffer = ByteBuffer.wrap(bytes);
+        
+        if (offset < channel.position()) throw new IOException("Invalid channel position");
+
+        //nicht positionierbare Datenkanaele (z.B. Eintraege im ZipStore)
+        //werden durch Lesen ohne Ausgabe bis zur Position vorgespult
+        if (offset > channel.position()) {
+            
+            try {channel.position(offset);
+            } catch (UnsupportedOperationException exception) {
+                
+                for (size = offset -channel.position(); size > 0; size -= buffer.position()) {
+                    
+                    buffer.clear();
+                    
+                    if (size < buffer.capacity()) buffer.limit((int)size);
+                    
+                    if (channel.read(buffer) < 0) return;
+                }
+            }
+        }
+        
+        while (length > 0) {
+            
+            buffer.clear();
+            
+            if (length < buffer.capacity()) buffer.limit((int)length);
+            
+            if (channel.read(buffer) < 0) break;
+            
+            length -= buffer.position();
+            
+            process.response.write(bytes, 0, buffer.position());
+        }
+    }
+
     /**
      *  R&uuml;ckgabe des Inhalts der per Request angeforderten Ressource.
      *  Handelt es sich dabei um ein Verzeichnis, wird dieses als navigierbares
      *  HTML an den Client gesendet.
-     *  @param  process Process
-     *  @param  store   Store
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doGet(Process process, Store store) throws IOException {
+    private static void doGet(Process process, Store store, Target target, Map<String, String> parameters) throws IOException {
         
-        Connector.doGet(process, store, false);
+        Connector.doGet(process, store, target, parameters, false);
     }
 
     /**
      *  R&uuml;ckgabe des Inhalts der per Request angeforderten Ressource.
      *  Handelt es sich dabei um ein Verzeichnis, wird dieses als navigierbares
      *  HTML an den Client gesendet.
-     *  @param  process  Process
-     *  @param  store    Store
-     *  @param  headonly <code>true</code>, wenn nur der Header gesendet wird   
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
+     *  @param  headonly   <code>true</code>, wenn nur der Header gesendet wird   
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doGet(Process process, Store store, boolean headonly) throws IOException {
+    private static void doGet(Process process, Store store, Target target, Map<String, String> parameters, boolean headonly) throws IOException {
     
-        InputStream input;
-        String      mimetype;
-        String      file;
-        String      path;
-        String      url;
+        Attributes          attributes;
+        List<byte[]>        parts;
+        List<long[]>        ranges;
+        SeekableByteChannel channel;
+        String              boundary;
+        String              mimetype;
+        String              modified;
+        String              string;
+        String              file;
+        String              path;
+        String              url;
+        
+        byte[]              content;
+        long[]              range;
     
-        byte[]      bytes;
-
-        boolean     control;
-        int         size;
-        long        volume;
+        boolean             control;
+        int                 loop;
+        long                volume;
+        long                size;
         
-        path = Connector.getProcessResourcePath(process);
-        file = store.isFolder(path) ? Connector.getDirectoryDefault(process, store, path) : null;
+        path = target.path;
+        file = target.isFolder() ? Connector.getDirectoryDefault(process, store, path) : null;
         
+        //mit Defaultdatei werden deren Attribute verwendet
         if (file != null) path = path.concat(file);
 
         if (!store.lock(path, false)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
+        //die Attribute werden erst mit der Sperre ermittelt, da die Ressource
+        //bis dahin noch ersetzt werden kann, Kopfzeilen und Inhalt beziehen
+        //sich so auf den gleichen Stand
+        attributes = file == null && !target.isResource() ? target.getAttributes() : store.getAttributes(path);
+        
         url = process.request.getURL();
 
-        if (store.isResource(path)) {
+        if (attributes != null && attributes.isResource()) {
         
             if (url.endsWith("/") && file == null) {
         
@@ -1373,32 +1972,152 @@ public class Connector extends Context {
         
             } else {
 
-                process.response.setHeaderField("last-modified", Connector.formatDate("E, dd MMM yyyy HH:mm:ss z", store.getLastModified(path), "GMT"));
-
-                volume = store.getResourceLength(path);
+                modified = Connector.formatDate("E, dd MMM yyyy HH:mm:ss z", attributes.getLastModified(), "GMT");
                 
-                if (volume > 0) process.response.setHeaderField("Content-Length", String.valueOf(volume));
+                process.response.setHeaderField("last-modified", modified);
+                process.response.setHeaderField("ETag", attributes.getETag());
+                
+                string = parameters.get(AbstractStore.PARAMETER_CACHECONTROL);
+                
+                if (string != null && string.trim().length() > 0) process.response.setHeaderField("Cache-Control", string.trim());
+                
+                //bei unveraenderter Ressource wird der Inhalt nicht geoeffnet
+                if (Connector.isNotModified(process, attributes)) {
+                    
+                    process.response.setStatus(Status.NOT_MODIFIED);
+                    process.response.setMessage(Status.getMessage(process.response.getStatus()));
+                    
+                    return;
+                }
+                
+                process.response.setHeaderField("Accept-Ranges", "bytes");
+                
+                //der Datenkanal wird vor den Kopfzeilen geoeffnet, die Laenge
+                //wird bei einem FileChannel von diesem uebernommen
+                channel = headonly ? null : store.getResourceChannel(path);
 
+                volume = channel instanceof FileChannel ? channel.size() : attributes.getLength();
+                
                 mimetype = Connector.getMimeType(path);
 
-                if (mimetype.length() > 0) process.response.setHeaderField("Content-Type", mimetype);
-
-                if (!headonly) {
+                //Range wird nur bei passendem If-Range beruecksichtigt
+                ranges = Connector.getRanges(process.request.getHeaderField("Range"), volume);
+                string = process.request.getHeaderField("If-Range").trim();
                 
-                    input = store.getResourceContent(path);
+                if (string.length() > 0 && !string.equals(modified)
+                        && (string.startsWith("W/") || !string.equals(attributes.getETag()))) ranges = null;
+                
+                if (ranges != null && ranges.isEmpty()) {
                     
-                    try {
+                    process.response.setHeaderField("Content-Range", ("bytes */").concat(String.valueOf(volume)));
+                    
+                    Connector.forceStatus(process, Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+                    
+                    if (channel != null) channel.close();
+                    
+                    return;
+                }
+                
+                if (ranges != null) {
+                    
+                    process.response.setStatus(Status.PARTIAL_CONTENT);
+                    process.response.setMessage(Status.getMessage(process.response.getStatus()));
+                }
+                
+                boundary = null;
+                parts    = null;
+                
+                if (ranges != null && ranges.size() == 1) {
+                    
+                    range = ranges.get(0);
+                    
+                    process.response.setHeaderField("Content-Range", ("bytes ").concat(String.valueOf(range[0])).concat("-")
+                            .concat(String.valueOf(range[1])).concat("/").concat(String.valueOf(volume)));
+                    process.response.setHeaderField("Content-Length", String.valueOf(range[1] -range[0] +1));
+                    
+                    if (mimetype.length() > 0) process.response.setHeaderField("Content-Type", mimetype);
+                    
+                } else if (ranges != null) {
+                    
+                    //die Kopfzeilen der Teile werden vorab fuer die
+                    //Berechnung der Gesamtlaenge zusammengestellt
+                    boundary = UUID.randomUUID().toString().replace("-", "");
+                    parts    = new ArrayList<byte[]>();
+                    size     = 0;
+                    
+                    for (long[] entry : ranges) {
+                        
+                        string = ("\r\n--").concat(boundary).concat("\r\n");
+                        
+                        if (mimetype.length() > 0) string = string.concat("Content-Type: ").concat(mimetype).concat("\r\n");
                         
-                        bytes = new byte[process.blocksize < 1 ? 65535 : process.blocksize];
+                        string = string.concat("Content-Range: bytes ").concat(String.valueOf(entry[0])).concat("-")
+                                .concat(String.valueOf(entry[1])).concat("/").concat(String.valueOf(volume)).concat("\r\n\r\n");
+                        
+                        parts.add(string.getBytes("ISO-8859-1"));
+                        
+                        size += parts.get(parts.size() -1).length +entry[1] -entry[0] +1;
+                    }
+                    
+                    parts.add(("\r\n--").concat(boundary).concat("--\r\n").getBytes("ISO-8859-1"));
+                    
+                    size += parts.get(parts.size() -1).length;
+
+                    process.response.setHeaderField("Content-Type", ("multipart/byteranges; boundary=").concat(boundary));
+                    process.response.setHeaderField("Content-Length", String.valueOf(size));
+                    
+                } else {
+                    
+                    process.response.setHeaderField("Content-Length", String.valueOf(Math.max(0, volume)));
+                    
+                    if (mimetype.length() > 0) process.response.setHeaderField("Content-Type", mimetype);
+                }
 
-                        while ((size = input.read(bytes, 0, bytes.length)) >= 0) {
+                if (channel != null) {
+                    
+                    //die Sperre wird mit dem geoeffneten Datenkanal vor der
+                    //Uebertragung aufgehoben, ersetzte Inhalte betreffen den
+                    //Datenkanal nicht mehr, nur nicht positionierbare
+                    //Datenkanaele mit mehreren Bereichen werden ggf. erneut
+                    //geoeffnet und behalten daher die Sperre
+                    if (parts == null || channel instanceof FileChannel) store.unlock(path);
+                    
+                    try {
                         
-                            process.response.write(bytes, 0, size);
+                        if (ranges == null) {
+                            
+                            Connector.transferContent(process, channel, 0, volume);
+                            
+                        } else if (parts == null) {
+                            
+                            Connector.transferContent(process, channel, ranges.get(0)[0], ranges.get(0)[1] -ranges.get(0)[0] +1);
+                            
+                        } else {
+                            
+                            for (loop = 0; loop < ranges.size(); loop++) {
+                                
+                                range = ranges.get(loop);
+                                
+                                //nicht positionierbare Datenkanaele werden bei
+                                //rueckwaerts liegenden Bereichen neu geoeffnet
+                                if (!(channel instanceof FileChannel) && channel.position() > range[0]) {
+                                    
+                                    channel.close();
+                                    
+                                    channel = store.getResourceChannel(path);
+                                }
+                                
+                                process.response.write(parts.get(loop));
+                                
+                                Connector.transferContent(process, channel, range[0], range[1] -range[0] +1);
+                            }
+                            
+                            process.response.write(parts.get(parts.size() -1));
                         }
-
+                        
                     } finally {
 
-                        input.close();
+                        channel.close();
                         
                         process.response.flush();
                         process.response.close();
@@ -1406,28 +2125,36 @@ public class Connector extends Context {
                 }
             }
             
-        } else if (!headonly && store.isFolder(path)) {
+        } else if (!headonly && attributes != null && attributes.isFolder()) {
         
             //die Option INDEX ON wird ueberprueft
             control = Connector.cleanOptions(process.options.get("index")).toLowerCase().equals("on");
             
-            if (control) process.response.write(Connector.getDirectory(process, store));
-            else Connector.forceStatus(process, Status.FORBIDDEN);
+            if (control) {
+                
+                content = Connector.getDirectory(process, store, target);
+                
+                process.response.setHeaderField("Content-Length", String.valueOf(content.length));
+                process.response.write(content);
+                
+            } else Connector.forceStatus(process, Status.FORBIDDEN);
 
-        } else if (!store.existsObject(path)) Connector.forceStatus(process, Status.NOT_FOUND);
+        } else if (attributes == null) Connector.forceStatus(process, Status.NOT_FOUND);
     }
 
     /**
      *  Ermittelt die Metadaten zur im Request angegebene Ressource.
      *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
-     *  @param  process Process
-     *  @param  store   Store
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doHead(Process process, Store store) throws IOException {
+    private static void doHead(Process process, Store store, Target target, Map<String, String> parameters) throws IOException {
     
-        Connector.doGet(process, store, true);
+        Connector.doGet(process, store, target, parameters, true);
     }
     
     /**
@@ -1435,21 +2162,22 @@ public class Connector extends Context {
      *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doMkcol(Process process, Store store) throws IOException {
+    private static void doMkcol(Process process, Store store, Target target) throws IOException {
     
         String parent;
         String path;
     
-        path = Connector.getProcessResourcePath(process);
+        path = target.path;
     
         if (!store.canWrite(path)) {Connector.forceStatus(process, Status.FORBIDDEN); return;}
 
         if (store.isLocked(path)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
-        if (store.isResource(path)) {Connector.forceStatus(process, Status.CONFLICT); return;}        
+        if (target.isResource()) {Connector.forceStatus(process, Status.CONFLICT); return;}        
     
         if (process.request.getContentLength() > 0) {
         
@@ -1469,7 +2197,7 @@ public class Connector extends Context {
 
                 } else {
                 
-                    process.response.setHeaderField("Allow", Connector.determineMethodsAllowed(process, store, path));
+                    process.response.setHeaderField("Allow", Connector.determineMethodsAllowed(store, target));
                     process.response.setStatus(Status.METHOD_NOT_ALLOWED);
                     process.response.setMessage(Status.getMessage(process.response.getStatus()));
                     
@@ -1484,84 +2212,150 @@ public class Connector extends Context {
     /**
      *  L&ouml;scht die angegebene Ressource.
      *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
-     *  @param  process Process
-     *  @param  store   Store
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doDelete(Process process, Store store) throws IOException {
+    private static void doDelete(Process process, Store store, Target target, Map<String, String> parameters) throws IOException {
 
         String path;
     
-        path = Connector.getProcessResourcePath(process);
+        path = target.path;
 
         if (!store.canWrite(path)) {Connector.forceStatus(process, Status.FORBIDDEN); return;}                     
         
         if (!store.lock(path, true)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
-        Connector.deleteResource(store, path, process);
+        //die dauerhaften Sperren der geloeschten Ressourcen werden aufgehoben
+        if (Connector.deleteResource(store, path, process, parameters)) store.revokeAll(path);
     }
 
     /**
      *  Speichert die &uuml;bermittelte Ressource im angegeben Ziel.
-     *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
+     *  Alle Bedingungen (Berechtigung, Sperre, Verzeichnis, Speicherplatz,
+     *  If-Match und If-None-Match) werden gepr&uuml;ft, bevor der Inhalt vom
+     *  Request gelesen wird. Bei Ablehnung wird die Verbindung beendet, womit
+     *  der Inhalt nicht mehr &uuml;bertragen werden muss.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doPut(Process process, Store store) throws IOException {
+    private static void doPut(Process process, Store store, Target target) throws IOException {
 
-        String parent;
         String path;
-    
-        path = Connector.getProcessResourcePath(process);
-
-        if (!store.canWrite(path)) {Connector.forceStatus(process, Status.FORBIDDEN); return;}
-
-        if (!store.lock(path, true)) {Connector.forceStatus(process, Status.LOCKED); return;}
+        String string;
         
-        parent = Connector.getParentPath(path);
+        int    status;
+        long   length;
     
-        if (parent != null && store.isFolder(parent) && !store.isFolder(path)) {
+        path = target.path;
         
-            if (!store.existsObject(path)) {
-            
-                store.createResource(path);
-                
-                process.response.setStatus(Status.CREATED);
-                process.response.setMessage(Status.getMessage(process.response.getStatus()));
-                
-            } else {
-                
-                process.response.setStatus(Status.NO_CONTENT);
-                process.response.setMessage(Status.getMessage(process.response.getStatus()));
-            }
+        //mit bekannter Laenge werden die Daten direkt uebertragen
+        try {length = Long.parseLong(process.request.getHeaderField("Content-Length").trim());
+        } catch (Exception exception) {
+            length = -1;
+        }
+        
+        string = process.request.getHeaderField("Expect");
+        string = string == null ? "" : string.trim();
+        
+        //unbekannte Erwartungen werden abgelehnt
+        if (string.length() > 0 && !string.equalsIgnoreCase("100-continue")) status = Status.EXPECTATION_FAILED;
+        else status = Connector.checkPutPreconditions(process, store, path, length);
+        
+        if (status != Status.SUCCESS) {
             
-            store.setResourceContent(path, process.request, null, null);
+            //der nicht gelesene Inhalt wird mit der Verbindung verworfen
+            process.response.setHeaderField("Connection", "close");
             
-            process.response.setHeaderField("Content-Length", String.valueOf(store.getResourceLength(path)));
+            Connector.forceStatus(process, status);
             
-        } else Connector.forceStatus(process, Status.CONFLICT);
+            return;
+        }
+
+        //die Ressource wird erst mit dem vollstaendigen Inhalt angelegt
+        status = store.existsObject(path) ? Status.NO_CONTENT : Status.CREATED;
+        
+        store.setResourceContent(path, process.request, length < 0 ? -1 : length, null, null);
+        
+        process.response.setStatus(status);
+        process.response.setMessage(Status.getMessage(process.response.getStatus()));
     }
     
     /**
-     *  Kopiert die im Request angegebene Ressource in das entsprechende Ziel.
-     *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
+     *  Pr&uuml;ft f&uuml;r PUT alle Bedingungen, welche ohne den Inhalt vom
+     *  Request ermittelt werden k&ouml;nnen. R&uuml;ckgabe vom Status der
+     *  Ablehnung oder <code>SUCCESS</code>, wenn der Inhalt angenommen wird.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  path    Pfad der Ressource
+     *  @param  length  L&auml;nge vom Inhalt, <code>-1</code> wenn unbekannt
+     *  @return der Status der Ablehnung, sonst <code>SUCCESS</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    private static int checkPutPreconditions(Process process, Store store, String path, long length)
+        throws IOException {
+        
+        Attributes attributes;
+        String     parent;
+        String     string;
+        
+        long       space;
+        
+        if (!store.canWrite(path)) return Status.FORBIDDEN;
+        
+        if (!store.lock(path, true)) return Status.LOCKED;
+        
+        parent = Connector.getParentPath(path);
+        
+        if (parent == null || !store.isFolder(parent)) return Status.CONFLICT;
+        
+        attributes = store.getAttributes(path);
+        
+        if (attributes != null && attributes.isFolder()) return Status.CONFLICT;
+        
+        //If-Match erfordert eine existierende Ressource mit passendem ETag
+        string = process.request.getHeaderField("If-Match");
+        
+        if (string != null && string.trim().length() > 0
+                && (attributes == null || !Connector.matchETag(string, attributes.getETag(), true))) return Status.PRECONDITION_FAILED;
+        
+        //If-None-Match verhindert das Ueberschreiben passender Ressourcen
+        string = process.request.getHeaderField("If-None-Match");
+        
+        if (attributes != null && Connector.matchETag(string, attributes.getETag(), false)) return Status.PRECONDITION_FAILED;
+        
+        space = length > 0 ? store.getUsableSpace(path) : -1;
+        
+        if (space >= 0 && space < length) return Status.INSUFFICIENT_STORAGE;
+        
+        return Status.SUCCESS;
+    }
+    
+    /**
+     *  Kopiert die im Request angegebene Ressource in das entsprechende Ziel.
+     *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doCopy(Process process, Store store) throws IOException {
+    private static void doCopy(Process process, Store store, Target target, Map<String, String> parameters) throws IOException {
 
         String path;
     
-        path = Connector.getProcessResourcePath(process);
+        path = target.path;
 
         if (!store.lock(path, false)) {Connector.forceStatus(process, Status.LOCKED); return;}
 
-        Connector.copyResource(process, store);
+        Connector.copyResource(process, store, target, parameters);
     }
 
     /**
@@ -1569,22 +2363,343 @@ public class Connector extends Context {
      *  Im Fehlerfall wird ein Multistatus als Fehlerbericht erstellt.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void doMove(Process process, Store store) throws IOException {
+    private static void doMove(Process process, Store store, Target target) throws IOException {
     
         String path;
     
-        path = Connector.getProcessResourcePath(process);
+        path = target.path;
 
         if (!store.canWrite(path)) {Connector.forceStatus(process, Status.FORBIDDEN); return;}
 
         if (!store.lock(path, true)) {Connector.forceStatus(process, Status.LOCKED); return;}
         
-        Connector.moveResource(process, store);
+        Connector.moveResource(process, store, target);
+    }
+    
+    /**
+     *  Richtet eine dauerhafte Sperre (LOCK) f&uuml;r die im Request
+     *  angegebene Ressource ein. Ohne Inhalt vom Request wird die per If-Header
+     *  &uuml;bermittelte Sperre der Ressource erneuert. Nicht existierende
+     *  Ressourcen werden als leere Ressource angelegt. Die Sperre wird als
+     *  Lockdiscovery zur&uuml;ckgegeben.
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
+     *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
+     *          Datenstr&ouml;me
+     *  @throws ParserConfigurationException  bei fehlerhafter XML Verarbeitung
+     *          des Request-Bodys
+     */
+    private static void doLock(Process process, Store store, Target target, Map<String, String> parameters)
+        throws IOException, ParserConfigurationException {
+        
+        Document     document;
+        Element      root;
+        Node         node;
+        OutputStream output;
+        Stream       stream;
+        String       owner;
+        String       parent;
+        String       path;
+        String       space;
+        String       string;
+        Token        token;
+        
+        boolean      exclusive;
+        boolean      exists;
+        int          depth;
+        long         timeout;
+        
+        space   = Connector.DEFAULT_XML_NAMESPACE;
+        path    = target.path;
+        timeout = Connector.getTimeout(process.request);
+        
+        if (!store.canWrite(path)) {Connector.forceStatus(process, Status.FORBIDDEN); return;}
+        
+        try {document = Connector.readDocument(process, target);
+        } catch (SAXException exception) {
+            
+            Connector.forceStatus(process, Status.BAD_REQUEST);
+            
+            return;
+        }
+        
+        exists = target.exists();
+        token  = null;
+        
+        if (document == null) {
+            
+            //ohne Inhalt wird die per If-Header uebermittelte Sperre erneuert
+            string = process.request.getHeaderField("If");
+            
+            for (Token entry : store.getTokens(path)) {
+                
+                if (string != null && string.contains(("<").concat(entry.getToken()).concat(">"))) token = entry;
+            }
+            
+            if (token != null) token = store.refresh(token.getToken(), timeout);
+            
+            if (token == null) {Connector.forceStatus(process, Status.PRECONDITION_FAILED); return;}
+            
+        } else {
+            
+            root = document.getDocumentElement();
+            node = Connector.findSubElement(root, "lockscope");
+            
+            exclusive = Connector.findSubElement(node, "exclusive") != null;
+            
+            //unterstuetzt werden nur exklusive und einfache Schreibsperren
+            if (!root.getLocalName().equalsIgnoreCase("lockinfo")
+                    || (!exclusive && Connector.findSubElement(node, "shared") == null)
+                    || Connector.findSubElement(Connector.findSubElement(root, "locktype"), "write") == null) {
+                
+                Connector.forceStatus(process, Status.BAD_REQUEST);
+                
+                return;
+            }
+            
+            node  = Connector.findSubElement(root, "owner");
+            owner = node == null ? null : node.getTextContent().trim();
+            depth = Connector.getDepth(process.request);
+            
+            //Sperren gelten nur fuer die Ressource oder unbegrenzt
+            if (depth != 0 && depth != Connector.INFINITY) {Connector.forceStatus(process, Status.BAD_REQUEST); return;}
+            
+            if (!exists) {
+                
+                parent = Connector.getParentPath(path);
+                
+                if (parent == null || !store.isFolder(parent)) {Connector.forceStatus(process, Status.CONFLICT); return;}
+                
+                if (!store.lock(path, true)) {Connector.forceStatus(process, Status.LOCKED); return;}
+            }
+            
+            token = store.acquire(path, exclusive, depth == Connector.INFINITY, owner, timeout);
+            
+            if (token == null) {Connector.forceStatus(process, Status.LOCKED); return;}
+            
+            //nicht existierende Ressourcen werden leer angelegt
+            if (!exists) {
+                
+                try {store.createResource(path);
+                } catch (IOException exception) {
+                    
+                    store.revoke(token.getToken());
+                    
+                    throw exception;
+                }
+            }
+            
+            process.response.setHeaderField("Lock-Token", ("<").concat(token.getToken()).concat(">"));
+        }
+        
+        process.response.setStatus(exists || document == null ? Status.SUCCESS : Status.CREATED);
+        process.response.setMessage(Status.getMessage(process.response.getStatus()));
+        process.response.setHeaderField("Content-Type", "text/xml; charset=UTF-8");
+        
+        output = Connector.openBody(process, parameters);
+        stream = new Stream(new BufferedOutputStream(output, (process.blocksize <= 0) ? 65535 : process.blocksize));
+        
+        stream.writeXmlHeader();
+        stream.writeElement(space, ("prop").concat(Connector.DEFAULT_XML_NAMESPACE_DECLARATION), Stream.OPENING);
+        
+        Connector.writeLockDiscovery(process, stream, new Token[] {token});
+        
+        stream.writeElement(space, "prop", Stream.CLOSING);
+        
+        stream.flush();
+        
+        Connector.finishBody(output);
+    }
+    
+    /**
+     *  Hebt die per Lock-Token angegebene dauerhafte Sperre (UNLOCK) auf. Die
+     *  Sperre muss f&uuml;r die im Request angegebene Ressource gelten.
+     *  @param  process Process
+     *  @param  store   Store
+     *  @param  target  Target
+     *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
+     *          Datenstr&ouml;me
+     */
+    private static void doUnlock(Process process, Store store, Target target) throws IOException {
+        
+        String path;
+        String string;
+        
+        path   = target.path;
+        string = process.request.getHeaderField("Lock-Token");
+        string = string == null ? "" : string.trim();
+        
+        if (string.startsWith("<") && string.endsWith(">")) string = string.substring(1, string.length() -1).trim();
+        
+        if (string.length() == 0) {Connector.forceStatus(process, Status.BAD_REQUEST); return;}
+        
+        for (Token token : store.getTokens(path)) {
+            
+            if (!token.getToken().equals(string)) continue;
+            
+            store.revoke(string);
+            
+            process.response.setStatus(Status.NO_CONTENT);
+            process.response.setMessage(Status.getMessage(process.response.getStatus()));
+            
+            return;
+        }
+        
+        Connector.forceStatus(process, Status.CONFLICT);
     }
     
+    /**
+     *  Pr&uuml;ft den If-Header vom Request und &uuml;bergibt die darin
+     *  enthaltenen Sperrkennungen an den Store. R&uuml;ckgabe
+     *  <code>true</code>, wenn kein If-Header angegeben wurde oder mindestens
+     *  eine der Bedingungslisten erf&uuml;llt ist. Bedingungslisten ohne
+     *  vorangestellte Ressource beziehen sich auf die Ressource vom Request.
+     *  @param  process Process
+     *  @param  store   Store
+     *  @param  target  Target
+     *  @return <code>true</code>, wenn der If-Header erf&uuml;llt ist
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    private static boolean evaluateIf(Process process, Store store, Target target) throws IOException {
+        
+        String  header;
+        String  path;
+        String  resource;
+        
+        boolean result;
+        int     cursor;
+        int     offset;
+        
+        header = process.request.getHeaderField("If");
+        
+        if (header == null || header.trim().length() == 0) return true;
+        
+        path     = target.path;
+        resource = path;
+        result   = false;
+        
+        //alle Listen werden ausgewertet, damit alle Sperrkennungen
+        //uebernommen werden
+        for (cursor = 0; cursor < header.length(); cursor = offset +1) {
+            
+            switch (header.charAt(cursor)) {
+            
+                case '<':
+                    
+                    if ((offset = header.indexOf('>', cursor)) < 0) return false;
+                    
+                    resource = Connector.resolvePath(process, header.substring(cursor +1, offset));
+                    
+                    if (resource == null) resource = path;
+                    
+                    break;
+                    
+                case '(':
+                    
+                    if ((offset = header.indexOf(')', cursor)) < 0) return false;
+                    
+                    if (Connector.evaluateIfList(store, resource, header.substring(cursor +1, offset))) result = true;
+                    
+                    break;
+                    
+                default:
+                    
+                    offset = cursor;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     *  Pr&uuml;ft eine Bedingungsliste vom If-Header f&uuml;r die angegebene
+     *  Ressource. Die Liste ist erf&uuml;llt, wenn alle Bedingungen (Lock-Token
+     *  und ETags, optional mit Not verneint) zutreffen. Die enthaltenen
+     *  Sperrkennungen werden an den Store &uuml;bergeben.
+     *  @param  store Store
+     *  @param  path  Pfad der Ressource
+     *  @param  list  Bedingungsliste ohne Klammern
+     *  @return <code>true</code>, wenn die Bedingungsliste erf&uuml;llt ist
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    private static boolean evaluateIfList(Store store, String path, String list) throws IOException {
+        
+        Attributes attributes;
+        String     string;
+        
+        boolean    match;
+        boolean    negate;
+        boolean    result;
+        int        cursor;
+        int        offset;
+        
+        attributes = null;
+        negate     = false;
+        result     = true;
+        
+        for (cursor = 0; cursor < list.length(); cursor = offset +1) {
+            
+            switch (list.charAt(cursor)) {
+            
+                case '<':
+                    
+                    if ((offset = list.indexOf('>', cursor)) < 0) return false;
+                    
+                    string = list.substring(cursor +1, offset).trim();
+                    
+                    store.submit(string);
+                    
+                    match = false;
+                    
+                    for (Token token : store.getTokens(path)) {
+                        
+                        if (token.getToken().equals(string)) match = true;
+                    }
+                    
+                    break;
+                    
+                case '[':
+                    
+                    if ((offset = list.indexOf(']', cursor)) < 0) return false;
+                    
+                    //die Attribute werden nur bei Bedarf einmalig ermittelt
+                    if (attributes == null) attributes = store.getAttributes(path);
+                    
+                    match = attributes != null && Connector.matchETag(list.substring(cursor +1, offset), attributes.getETag(), false);
+                    
+                    break;
+                    
+                case 'N':
+                case 'n':
+                    
+                    if (!list.regionMatches(true, cursor, "not", 0, 3)) return false;
+                    
+                    negate = true;
+                    offset = cursor +2;
+                    
+                    continue;
+                    
+                default:
+                    
+                    offset = cursor;
+                    
+                    continue;
+            }
+            
+            if (match == negate) result = false;
+            
+            negate = false;
+        }
+        
+        return result;
+    }
+
     /**
      *  Ermittelt die im Request &uuml;bermittelte Destination. 
      *  @param  process Process
@@ -1592,13 +2707,22 @@ public class Connector extends Context {
      */
     private static String findDestination(Process process) {
         
+        return Connector.resolvePath(process, process.request.getHeaderField("Destination"));
+    }
+    
+    /**
+     *  Ermittelt zur angegebenen Adresse den Pfad der Ressource im Store.
+     *  Host-Angaben und Bez&uuml;ge auf den Request-Pfad werden entfernt.
+     *  @param  process     Process
+     *  @param  destination Adresse der Ressource
+     *  @return der Pfad der Ressource, sonst <code>null</code>
+     */
+    private static String resolvePath(Process process, String destination) {
+        
         String absolute;
-        String destination;
 
         int    cursor;
 
-        destination = process.request.getHeaderField("Destination");
-
         if (destination == null || destination.trim().length() == 0) return null;
 
         //eventuelle Sonderzeichen werden dekodiert
@@ -1631,17 +2755,27 @@ public class Connector extends Context {
     }
 
     /**
-     *  Kopiert die im Request angegebenen Ressource.
-     *  @param  process Process
-     *  @param  store   Store
+     *  Kopiert die im Request angegebenen Ressource. Verzeichnisse werden
+     *  entsprechend der Tiefe (Depth) mit dem kompletten Inhalt oder nur als
+     *  Verzeichnis kopiert. Fehler einzelner Eintr&auml;ge werden als
+     *  Multistatus gemeldet.
+     *  @param  process    Process
+     *  @param  store      Store
+     *  @param  target     Target
+     *  @param  parameters Konfiguration
      *  @return <code>true</code>, wenn die Ressource kopiert wurde
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen
      */
-    private static boolean copyResource(Process process, Store store)
+    private static boolean copyResource(Process process, Store store, Target target, Map<String, String> parameters)
         throws IOException {
     
-        String destination;
-        String source;
+        Attributes               attributes;
+        Map<String, IOException> errors;
+        String                   destination;
+        String                   source;
+        
+        boolean                  exists;
+        int                      depth;
 
         destination = Connector.findDestination(process);
 
@@ -1652,43 +2786,142 @@ public class Connector extends Context {
             return false;
         }
 
-        source = Connector.getProcessResourcePath(process);
+        source = target.path;
+        
+        //fuer COPY ist nur die Tiefe 0 und infinity zulaessig
+        depth = Connector.getDepth(process.request);
+        
+        if (depth != 0 && depth != Connector.INFINITY) {Connector.forceStatus(process, Status.BAD_REQUEST); return false;}
 
         //ist die Ziel gleich der Quelle wird Status FORBIDDEN gesetzt
         if (source.equals(destination)) {Connector.forceStatus(process, Status.FORBIDDEN); return false;}
+        
+        //das Ziel darf nicht innerhalb der Quelle liegen
+        if (destination.startsWith(source.endsWith("/") ? source : source.concat("/"))) {Connector.forceStatus(process, Status.FORBIDDEN); return false;}
+
+        //das Ziel darf auch kein uebergeordnetes Verzeichnis der Quelle sein,
+        //da dieses beim Ersetzen mit der Quelle geloescht wuerde
+        if ((source.endsWith("/") ? source : source.concat("/")).startsWith(destination.endsWith("/") ? destination : destination.concat("/"))) {
+            
+            Connector.forceStatus(process, Status.FORBIDDEN);
+            
+            return false;
+        }
 
         if (!store.canWrite(destination)) {Connector.forceStatus(process, Status.FORBIDDEN); return false;}
 
         if (!store.lock(destination, true)) {Connector.forceStatus(process, Status.LOCKED); return false;}
 
         //die Quelle wird auf Existenz geprueft
-        if (!store.existsObject(source)) {Connector.forceStatus(process, Status.NOT_FOUND); return false;}
+        attributes = store.getAttributes(source);
         
-        if (process.request.containsHeaderField("Overwrite")
-                && process.request.getHeaderField("Overwrite").equalsIgnoreCase("T")
-                && store.existsObject(destination)) {
+        if (attributes == null) {Connector.forceStatus(process, Status.NOT_FOUND); return false;}
+        
+        exists = store.existsObject(destination);
+        
+        //mit Overwrite F wird ein existierendes Ziel nicht ersetzt
+        if (exists && process.request.getHeaderField("Overwrite").trim().equalsIgnoreCase("F")) {
 
             Connector.forceStatus(process, Status.PRECONDITION_FAILED);
 
             return false;
         }
+        
+        //die Quelle wird fuer das Ersetzen vom Ziel exklusiv gesperrt
+        if (exists && !store.lock(source, true)) {Connector.forceStatus(process, Status.LOCKED); return false;}
+        
+        //ein existierendes Ziel wird ersetzt und nicht zusammengefuehrt
+        if (exists && !Connector.deleteResource(store, destination, process, parameters)) return false;
+        
+        if (!attributes.isFolder()) {
+            
+            store.copyObject(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            
+            errors = null;
+            
+        } else errors = store.copyFolder(source, destination, depth != 0);
 
-        process.response.setStatus(Status.CREATED);
-        process.response.setMessage(Status.getMessage(process.response.getStatus()));
+        if (errors != null && !errors.isEmpty()) {
+            
+            Connector.sendMultiStatus(process, parameters, errors);
+            
+            return false;
+        }
 
-        store.copyObject(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        process.response.setStatus(exists ? Status.NO_CONTENT : Status.CREATED);
+        process.response.setMessage(Status.getMessage(process.response.getStatus()));
 
         return true;
     }
     
+    /**
+     *  Ermittelt den Status zum aufgetretenen Fehler eines Eintrags.
+     *  @param  exception aufgetretener Fehler
+     *  @return der Status zum aufgetretenen Fehler
+     */
+    private static int getStatus(IOException exception) {
+        
+        if (exception instanceof AccessDeniedException) return Status.FORBIDDEN;
+        if (exception instanceof FileAlreadyExistsException) return Status.PRECONDITION_FAILED;
+        if (exception instanceof NoSuchFileException) return Status.CONFLICT;
+        if (exception instanceof DirectoryNotEmptyException) return Status.CONFLICT;
+        if (exception instanceof FileSystemException) return Status.LOCKED;
+        
+        return Status.INTERNAL_SERVER_ERROR;
+    }
+    
+    /**
+     *  Sendet die Fehler einzelner Eintr&auml;ge als Multistatus an den
+     *  Client.
+     *  @param  process    Process
+     *  @param  parameters Konfiguration
+     *  @param  errors     Fehler der Eintr&auml;ge mit dem Pfad als URI
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datenstr&ouml;me
+     */
+    private static void sendMultiStatus(Process process, Map<String, String> parameters, Map<String, IOException> errors)
+        throws IOException {
+        
+        OutputStream output;
+        Stream       stream;
+        String       space;
+        
+        space = Connector.DEFAULT_XML_NAMESPACE;
+        
+        process.response.setStatus(Status.MULTI_STATUS);
+        process.response.setMessage(Status.getMessage(process.response.getStatus()));
+        process.response.setHeaderField("Content-Type", "text/xml; charset=UTF-8");
+
+        output = Connector.openBody(process, parameters);
+        stream = new Stream(new BufferedOutputStream(output, (process.blocksize <= 0) ? 65535 : process.blocksize));
+        
+        stream.writeXmlHeader();
+        
+        stream.writeElement(space, ("multistatus").concat(Connector.DEFAULT_XML_NAMESPACE_DECLARATION), Stream.OPENING);
+        
+        for (Map.Entry<String, IOException> entry : errors.entrySet()) {
+            
+            stream.writeElement(space, "response", Stream.OPENING);
+            stream.writeProperty(space, "href", Connector.getResourceHref(process, entry.getKey()));
+            stream.writeProperty(space, "status", Connector.generateStatusSignature(Connector.getStatus(entry.getValue())));
+            stream.writeElement(space, "response", Stream.CLOSING);
+        }
+        
+        stream.writeElement(space, "multistatus", Stream.CLOSING);
+        
+        stream.flush();
+        
+        Connector.finishBody(output);
+    }
+    
     /**
      *  Verschieb die im Request angegebenen Ressource.
      *  @param  process Process
      *  @param  store   Store
+     *  @param  target  Target
      *  @return <code>true</code>, wenn die Ressource verschoben wurde
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen
      */
-    private static boolean moveResource(Process process, Store store)
+    private static boolean moveResource(Process process, Store store, Target target)
         throws IOException {
     
         String destination;
@@ -1703,7 +2936,7 @@ public class Connector extends Context {
             return false;
         }
 
-        source = Connector.getProcessResourcePath(process);
+        source = target.path;
 
         //ist die Ziel gleich der Quelle wird Status FORBIDDEN gesetzt
         if (source.equals(destination)) {Connector.forceStatus(process, Status.FORBIDDEN); return false;}
@@ -1728,71 +2961,60 @@ public class Connector extends Context {
         process.response.setMessage(Status.getMessage(process.response.getStatus()));
 
         store.moveObject(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        
+        //die dauerhaften Sperren der Quelle gelten nicht fuer das Ziel
+        store.revokeAll(source);
 
         return true;
     }    
 
     /**
-     *  L&ouml;sche die per Pfad angegebene Ressource.
-     *  @param  store   Store
-     *  @param  path    die zu l&ouml;schende Ressource
-     *  @param  process Process
+     *  L&ouml;sche die per Pfad angegebene Ressource. Verzeichnisse werden mit
+     *  dem kompletten Inhalt gel&ouml;scht. Konnten einzelne Eintr&auml;ge
+     *  nicht gel&ouml;scht werden, wird ein Multistatus als Fehlerbericht
+     *  erstellt.
+     *  @param  store      Store
+     *  @param  path       die zu l&ouml;schende Ressource
+     *  @param  process    Process
+     *  @param  parameters Konfiguration
+     *  @return <code>true</code>, wenn die Ressource vollst&auml;ndig
+     *          gel&ouml;scht wurde
      *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
      *          Datenstr&ouml;me
      */
-    private static void deleteResource(Store store, String path, Process process) throws IOException {
+    private static boolean deleteResource(Store store, String path, Process process, Map<String, String> parameters)
+        throws IOException {
+        
+        Attributes               attributes;
+        Map<String, IOException> errors;
+        String                   string;
 
+        attributes = store.getAttributes(path);
+        
+        if (attributes == null) {Connector.forceStatus(process, Status.NOT_FOUND); return false;}
+        
         process.response.setStatus(Status.NO_CONTENT);
         process.response.setMessage(Status.getMessage(process.response.getStatus()));
 
-        if (store.isResource(path)) {
+        if (!attributes.isFolder()) {
 
             store.removeObject(path);
-
-        } else {
-
-            if (store.isFolder(path)) {
-
-                Connector.deleteFolder(store, path);
-
-                store.removeObject(path);
-
-            } else Connector.forceStatus(process, Status.NOT_FOUND);
+            
+            return true;
         }
-    }
-
-    /**
-     *  L&ouml;sche das Verzeichnis mit dem kompletten Inhalt.
-     *  @param  store  Store
-     *  @param  path   das zu l&ouml;schende Verzeichnis
-     *  @throws IOException bei fehlerhaftem Zugriff auf Ressourcen oder
-     *          Datenstr&ouml;me
-     */
-    private static void deleteFolder(Store store, String path) throws IOException {
-
-        String   source;
-
-        String[] children;
-
-        int      loop;
-
-        children = store.getChildrenNames(path);
-
-        for (loop = children.length -1; loop >= 0; loop--) {
 
-            source = path.concat("/").concat(children[loop]);
-
-            if (store.isResource(source)) {
-
-                store.removeObject(source);
-
-            } else {
-
-                Connector.deleteFolder(store, source);
-
-                store.removeObject(source);
-            }
-        }
+        errors = store.removeFolder(path);
+        
+        if (errors.isEmpty()) return true;
+        
+        string = path.endsWith("/") ? path.substring(0, path.length() -1) : path;
+        
+        //betrifft der Fehler nur das Verzeichnis selbst, wird dieser direkt
+        //als Status gesetzt
+        if (errors.size() == 1 && errors.containsKey(string)) Connector.forceStatus(process, Connector.getStatus(errors.get(string)));
+        else Connector.sendMultiStatus(process, parameters, errors);
+        
+        return false;
     }
 
     /**
@@ -1808,6 +3030,89 @@ public class Connector extends Context {
         return string;
     }
 
+    /**
+     *  Schreibt die geltenden dauerhaften Sperren als Eigenschaft
+     *  <code>lockdiscovery</code> in den &uuml;bergebenen XML-Datenstrom.
+     *  @param  process Process
+     *  @param  xml     XML-Datenstrom
+     *  @param  tokens  geltende dauerhafte Sperren
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    private static void writeLockDiscovery(Process process, Stream xml, Token[] tokens) throws IOException {
+        
+        String space;
+        
+        long   timeout;
+        
+        space = Connector.DEFAULT_XML_NAMESPACE;
+        
+        if (tokens.length == 0) {xml.writeElement(space, "lockdiscovery", Stream.EMPTY); return;}
+        
+        xml.writeElement(space, "lockdiscovery", Stream.OPENING);
+        
+        for (Token token : tokens) {
+            
+            //als Timeout wird die verbleibende Lebensdauer angegeben
+            timeout = Math.max(0, (token.getDeadline() -System.currentTimeMillis()) /1000);
+            
+            xml.writeElement(space, "activelock", Stream.OPENING);
+            xml.writeElement(space, "locktype", Stream.OPENING);
+            xml.writeElement(space, "write", Stream.EMPTY);
+            xml.writeElement(space, "locktype", Stream.CLOSING);
+            xml.writeElement(space, "lockscope", Stream.OPENING);
+            xml.writeElement(space, token.isExclusive() ? "exclusive" : "shared", Stream.EMPTY);
+            xml.writeElement(space, "lockscope", Stream.CLOSING);
+            xml.writeProperty(space, "depth", token.isDeep() ? "infinity" : "0");
+            
+            if (token.getOwner() != null && token.getOwner().length() > 0) {
+                
+                xml.writeElement(space, "owner", Stream.OPENING);
+                xml.writePropertyData(space, "href", token.getOwner());
+                xml.writeElement(space, "owner", Stream.CLOSING);
+            }
+            
+            xml.writeProperty(space, "timeout", token.getTimeout() <= 0 ? "Infinite" : ("Second-").concat(String.valueOf(timeout)));
+            xml.writeElement(space, "locktoken", Stream.OPENING);
+            xml.writeProperty(space, "href", token.getToken());
+            xml.writeElement(space, "locktoken", Stream.CLOSING);
+            xml.writeElement(space, "lockroot", Stream.OPENING);
+            xml.writeProperty(space, "href", Connector.getResourceHref(process, token.getUri()));
+            xml.writeElement(space, "lockroot", Stream.CLOSING);
+            xml.writeElement(space, "activelock", Stream.CLOSING);
+        }
+        
+        xml.writeElement(space, "lockdiscovery", Stream.CLOSING);
+    }
+    
+    /**
+     *  Schreibt die unterst&uuml;tzten Sperren als Eigenschaft
+     *  <code>supportedlock</code> in den &uuml;bergebenen XML-Datenstrom.
+     *  @param  xml XML-Datenstrom
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Datenstrom
+     */
+    private static void writeSupportedLock(Stream xml) throws IOException {
+        
+        String space;
+        
+        space = Connector.DEFAULT_XML_NAMESPACE;
+        
+        xml.writeElement(space, "supportedlock", Stream.OPENING);
+        
+        for (String scope : new String[] {"exclusive", "shared"}) {
+            
+            xml.writeElement(space, "lockentry", Stream.OPENING);
+            xml.writeElement(space, "lockscope", Stream.OPENING);
+            xml.writeElement(space, scope, Stream.EMPTY);
+            xml.writeElement(space, "lockscope", Stream.CLOSING);
+            xml.writeElement(space, "locktype", Stream.OPENING);
+            xml.writeElement(space, "write", Stream.EMPTY);
+            xml.writeElement(space, "locktype", Stream.CLOSING);
+            xml.writeElement(space, "lockentry", Stream.CLOSING);
+        }
+        
+        xml.writeElement(space, "supportedlock", Stream.CLOSING);
+    }
+
     /**
      *  Ermittelt die mit per PROPFIND angeforderten Eigenschaften, l&ouml;st
      *  diese auf und &uuml;bermittelt diese in den &uuml;bergebenen
@@ -1816,16 +3121,18 @@ public class Connector extends Context {
      *  @param  xml        XML Datenstrom
      *  @param  store      Store
      *  @param  path       Pfad der Ressource
+     *  @param  attributes Momentaufnahme der Attribute der Ressource
      *  @param  type       PROPFIND Typ
      *  @param  properties gefundene Eigenschaften
      *  @throws IOException bei fehlerhaftem Zugriff auf den Store
      */
     private static void parseProperties(Process process, Stream xml,
-        Store store, String path, int type, Properties properties) throws IOException {
+        Store store, String path, Attributes attributes, int type, Properties properties) throws IOException {
 
         Iterator<String> iterator;
         List<String>     list;
         String           creation;
+        String           etag;
         String           length;
         String           modified;
         String           resource;
@@ -1838,30 +3145,27 @@ public class Connector extends Context {
         int              cursor;
         int              bits;
         
+        //zwischenzeitlich entfernte Ressourcen werden ignoriert
+        if (attributes == null) return;
+
         space = Connector.DEFAULT_XML_NAMESPACE;
 
-        creation = Connector.formatDate("yyyy-MM-dd'T'HH:mm:ss'Z'", store.getCreationTime(path), "GMT");
-        modified = Connector.formatDate("E, dd MMM yyyy HH:mm:ss z", store.getLastModified(path), "GMT");
-        folder   = store.isFolder(path);
-        length   = String.valueOf(store.getResourceLength(path));
+        creation = Connector.formatDate("yyyy-MM-dd'T'HH:mm:ss'Z'", attributes.getCreationTime(), "GMT");
+        modified = Connector.formatDate("E, dd MMM yyyy HH:mm:ss z", attributes.getLastModified(), "GMT");
+        folder   = attributes.isFolder();
+        length   = String.valueOf(attributes.getLength());
+        etag     = attributes.getETag();
         status   = Connector.generateStatusSignature(Status.SUCCESS);
-        resource = process.environment.get("path_absolute");
         
         //Win32FileAttributes
         //siehe http://msdn.microsoft.com/en-us/library/windows/desktop/aa365535%28v=vs.85%29.aspx
-        bits  = store.isReadOnly(path) ? 0x01 : 0;
-        bits |= store.isHidden(path) ? 0x02 : 0;
-        bits |= store.isSystem(path) ? 0x04 : 0;                
-        bits |= store.isArchive(path) ? 0x20 : 0;
-
-        if (!resource.startsWith("/")) resource = ("/").concat(resource);
-        if (!resource.endsWith("/") && !path.startsWith("/")) resource = resource.concat("/");
-        if (resource.endsWith("/") && path.startsWith("/")) resource = resource.substring(0, resource.length() -1);
-
-        resource = resource.concat(path);
+        bits  = attributes.isReadOnly() ? 0x01 : 0;
+        bits |= attributes.isHidden() ? 0x02 : 0;
+        bits |= attributes.isSystem() ? 0x04 : 0;                
+        bits |= attributes.isArchive() ? 0x20 : 0;
 
         xml.writeElement(space, "response", Stream.OPENING);
-        xml.writeProperty(space, "href", Connector.escapeOutput(Connector.rewriteUrl(resource)));
+        xml.writeProperty(space, "href", Connector.getResourceHref(process, path));
 
         if ((cursor = (resource = path).lastIndexOf('/')) >= 0) resource = resource.substring(cursor + 1);
 
@@ -1887,14 +3191,14 @@ public class Connector extends Context {
 
                     xml.writeElement(space, "resourcetype", Stream.OPENING);
                     xml.writeElement(space, "collection", Stream.EMPTY);
-                    xml.writeProperty(space, "getetag", store.getETag(path));
+                    xml.writeProperty(space, "getetag", etag);
                     xml.writeElement(space, "resourcetype", Stream.CLOSING);
 
                 } else {
 
                     xml.writeProperty(space, "getlastmodified", modified);
                     xml.writeProperty(space, "getcontentlength", length);
-                    xml.writeProperty(space, "getetag", store.getETag(path));
+                    xml.writeProperty(space, "getetag", etag);
                     xml.writeElement(space, "resourcetype", Stream.EMPTY);
 
                     string = Connector.getMimeType(path);
@@ -1903,6 +3207,10 @@ public class Connector extends Context {
                 }
 
                 xml.writeProperty(space, "source", "");
+                
+                Connector.writeLockDiscovery(process, xml, store.getTokens(path));
+                Connector.writeSupportedLock(xml);
+                
                 xml.writeElement(space, "prop", Stream.CLOSING);
                 xml.writeProperty(space, "status", status);
                 xml.writeElement(space, "propstat", Stream.CLOSING);
@@ -1937,6 +3245,7 @@ public class Connector extends Context {
                 xml.writeElement(space, "resourcetype", Stream.EMPTY);
                 xml.writeElement(space, "source", Stream.EMPTY);
                 xml.writeElement(space, "lockdiscovery", Stream.EMPTY);
+                xml.writeElement(space, "supportedlock", Stream.EMPTY);
                 xml.writeElement(space, "prop", Stream.CLOSING);
                 xml.writeProperty(space, "status", status);
                 xml.writeElement(space, "propstat", Stream.CLOSING);
@@ -1986,6 +3295,10 @@ public class Connector extends Context {
                             xml.writeProperty(space, "isarchive", (bits & 0x20) == 0 ? "false" : "true");
                         } else if (property.equals("Win32FileAttributes")) {
                             xml.writeProperty(space, "Win32FileAttributes", Integer.toHexString(bits));
+                        } else if (property.equals("lockdiscovery")) {
+                            Connector.writeLockDiscovery(process, xml, store.getTokens(path));
+                        } else if (property.equals("supportedlock")) {
+                            Connector.writeSupportedLock(xml);
                         } else {
                             list.add(property);
                         }
@@ -2003,7 +3316,7 @@ public class Connector extends Context {
                         } else if (property.equals("getcontenttype")) {
                             xml.writeProperty(space, "getcontenttype", Connector.getMimeType(path));
                         } else if (property.equals("getetag")) {
-                            xml.writeProperty(space, "getetag", store.getETag(path));
+                            xml.writeProperty(space, "getetag", etag);
                         } else if (property.equals("getlastmodified")) {
                             xml.writeProperty(space, "getlastmodified", modified);
                         } else if (property.equals("resourcetype")) {
@@ -2022,6 +3335,10 @@ public class Connector extends Context {
                             xml.writeProperty(space, "isarchive", (bits & 0x20) == 0 ? "false" : "true");
                         } else if (property.equals("Win32FileAttributes")) {
                             xml.writeProperty(space, "Win32FileAttributes", Integer.toHexString(bits));
+                        } else if (property.equals("lockdiscovery")) {
+                            Connector.writeLockDiscovery(process, xml, store.getTokens(path));
+                        } else if (property.equals("supportedlock")) {
+                            Connector.writeSupportedLock(xml);
                         } else {
                             list.add(property);
                         }
@@ -2059,38 +3376,34 @@ public class Connector extends Context {
 
     /**
      *  R&uuml;ckgabe der f&uuml;r die Ressource zul&auml;ssigen Methoden.
-     *  @param  process Process
-     *  @param  store   Store
-     *  @param  uri     Pfad als URI
+     *  @param  store  Store
+     *  @param  target Target
      *  @return die f&uuml;r die Ressource zul&auml;ssigen Methoden
      *  @throws IOException bei fehlerhaftem Zugriff auf die Methode
      */
-    private static String determineMethodsAllowed(Process process, Store store,
-        String uri) throws IOException {
+    private static String determineMethodsAllowed(Store store, Target target)
+        throws IOException {
 
         String  methods;
-        String  path;
 
         boolean readonly;
 
-        path = Connector.getProcessResourcePath(process);
-
-        readonly = !store.canWrite(path);
+        readonly = !store.canWrite(target.path);
 
         methods  = "OPTIONS, GET, HEAD, PROPFIND";
 
-        if (!readonly) methods = methods.concat(", DELETE, PROPPATCH, COPY, MOVE");
+        if (!readonly) methods = methods.concat(", DELETE, PROPPATCH, COPY, MOVE, LOCK, UNLOCK");
 
-        if (store.existsObject(uri)) {
+        if (target.exists()) {
 
-            if (!readonly && store.isFolder(uri)) methods = methods.concat(", PUT");
+            if (!readonly && target.isFolder()) methods = methods.concat(", PUT");
 
             return methods;
         }
 
         methods = "OPTIONS";
 
-        return (readonly) ? methods : methods.concat(", PUT, MKCOL");
+        return (readonly) ? methods : methods.concat(", PUT, MKCOL, LOCK");
     }
     
     /**
@@ -2141,6 +3454,7 @@ public class Connector extends Context {
     public void service(Process process) throws Exception {
 
         Store   store;
+        Target  target;
         String  method;
         String  context;
         String  path;
@@ -2148,9 +3462,14 @@ public class Connector extends Context {
         String  info;
         
         boolean force;
+        boolean persistent;
 
-        process.response.setProtocol("HTTP/1.0");
-        process.response.setHeaderField("Connection", "close");
+        persistent = Connector.isPersistent(process, this.parameters);
+        
+        //ohne KEEPALIVE wird die Verbindung mit jeder Antwort beendet
+        process.response.setProtocol(persistent ? "HTTP/1.1" : "HTTP/1.0");
+        
+        if (!persistent) process.response.setHeaderField("Connection", "close");
         process.response.setStatus(Status.SUCCESS);
         process.response.setMessage(Status.getMessage(process.response.getStatus()));
         
@@ -2177,35 +3496,52 @@ public class Connector extends Context {
         if (force && !path.startsWith("/")) {Connector.forceStatus(process, Status.NOT_FOUND); return;}
 
         store = this.store.share(null, this.parameters);
-
-        //ggf. Weiterleitung wenn Verzeichnis ohne endendem Slash
-        if (force && store != null && store.isFolder(path) && !info.endsWith("/")) {Connector.forceRedirect(process, context.concat(path).concat("/"), query); return;}
-        
-        //ggf. Weiterleitung wenn Datei mit endendem Slash
-        if (force && store != null && store.isResource(path) && info.endsWith("/")) {Connector.forceRedirect(process, context.concat(path.substring(0, path.length() -1)), query); return;}
         
         try {
+            
+            //Pfad und Attribute der Ressource werden einmalig fuer alle
+            //Methoden ermittelt
+            target = new Target(store, Connector.getProcessResourcePath(process));
+            
+            //ausser bei PUT wird der Inhalt vom Request vorab gelesen, damit
+            //vorzeitige Antworten keinen ungelesenen Inhalt hinterlassen
+            if (!method.equals(Connector.METHOD_PUT)) Connector.readContent(process, target);
 
-            if (method.equals(Connector.METHOD_PROPFIND)) {
-                Connector.doPropfind(process, store);
+            //ggf. Weiterleitung wenn Verzeichnis ohne endendem Slash
+            if (force && target.isFolder() && !info.endsWith("/")) {Connector.forceRedirect(process, context.concat(path).concat("/"), query); return;}
+            
+            //ggf. Weiterleitung wenn Datei mit endendem Slash
+            if (force && target.isResource() && info.endsWith("/")) {Connector.forceRedirect(process, context.concat(path.substring(0, path.length() -1)), query); return;}
+
+            //die Sperrkennungen werden fuer alle Methoden uebernommen
+            if (!Connector.evaluateIf(process, store, target)) {
+                //der nicht gelesene Inhalt von PUT wird mit der Verbindung verworfen
+                if (method.equals(Connector.METHOD_PUT)) process.response.setHeaderField("Connection", "close");
+                Connector.forceStatus(process, Status.PRECONDITION_FAILED);
+            } else if (method.equals(Connector.METHOD_PROPFIND)) {
+                Connector.doPropfind(process, store, target, store.getWorkers(), this.parameters);
             } else if (method.equals(Connector.METHOD_PROPPATCH)) {
-                Connector.doProppatch(process, store);
+                Connector.doProppatch(process, store, target, this.parameters);
             } else if (method.equals(Connector.METHOD_MKCOL)) {
-                Connector.doMkcol(process, store);
+                Connector.doMkcol(process, store, target);
             } else if (method.equals(Connector.METHOD_COPY)) {
-                Connector.doCopy(process, store);
+                Connector.doCopy(process, store, target, this.parameters);
             } else if (method.equals(Connector.METHOD_MOVE)) {
-                Connector.doMove(process, store);
+                Connector.doMove(process, store, target);
             } else if (method.equals(Connector.METHOD_PUT)) {
-                Connector.doPut(process, store);
+                Connector.doPut(process, store, target);
             } else if (method.equals(Connector.METHOD_GET)) {
-                Connector.doGet(process, store);
+                Connector.doGet(process, store, target, this.parameters);
             } else if (method.equals(Connector.METHOD_OPTIONS)) {
-                Connector.doOptions(process, store);
+                Connector.doOptions(process, store, target);
             } else if (method.equals(Connector.METHOD_HEAD)) {
-                Connector.doHead(process, store);
+                Connector.doHead(process, store, target, this.parameters);
             } else if (method.equals(Connector.METHOD_DELETE)) {
-                Connector.doDelete(process, store);
+                Connector.doDelete(process, store, target, this.parameters);
+            } else if (method.equals(Connector.METHOD_LOCK)) {
+                Connector.doLock(process, store, target, this.parameters);
+            } else if (method.equals(Connector.METHOD_UNLOCK)) {
+                Connector.doUnlock(process, store, target);
             } else {
                 
                 process.response.setStatus(Status.NOT_IMPLEMENTED);
@@ -2232,6 +3568,11 @@ public class Connector extends Context {
             
         } finally {
             
+            //Antworten ohne Inhalt werden mit der Laenge 0 abgeschlossen,
+            //damit die Verbindung bestehen bleiben kann
+            if (!process.response.isCommitted() && persistent && !method.equals(Connector.METHOD_HEAD)
+                    && process.response.getStatus() != Status.NOT_MODIFIED) process.response.setHeaderField("Content-Length", "0");
+            
             if (!process.response.isCommitted()) process.response.flush();
 
             try {store.close();
@@ -112,6 +112,15 @@ class Status {
     /** Konstante f&uuml;r den Status Code UNSUPPORTED_MEDIA_TYPE */
     static final int UNSUPPORTED_MEDIA_TYPE = 415;
 
+    /** Konstante f&uuml;r den Status Code PARTIAL_CONTENT */
+    static final int PARTIAL_CONTENT = 206;
+
+    /** Konstante f&uuml;r den Status Code REQUESTED_RANGE_NOT_SATISFIABLE */
+    static final int REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+
+    /** Konstante f&uuml;r den Status Code EXPECTATION_FAILED */
+    static final int EXPECTATION_FAILED = 417;
+
     /** Konstante f&uuml;r den Status Code MULTI_STATUS */
     static final int MULTI_STATUS = 207;
 
@@ -123,6 +132,9 @@ class Status {
 
     /** Konstante f&uuml;r den Status Code LOCKED */
     static final int LOCKED = 423;
+
+    /** Konstante f&uuml;r den Status Code INSUFFICIENT_STORAGE */
+    static final int INSUFFICIENT_STORAGE = 507;
     
     static {
     
@@ -0,0 +1,120 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav;
+
+import java.io.IOException;
+
+import com.seanox.webdav.storage.Attributes;
+import com.seanox.webdav.storage.Store;
+
+/**
+ *  Target stellt die per Request angeforderte Ressource f&uuml;r die Dauer
+ *  vom Request zur Verf&uuml;gung. Der Pfad wird dabei einmalig dekodiert und
+ *  die Attribute werden beim ersten Zugriff als Momentaufnahme ermittelt und
+ *  f&uuml;r alle weiteren Abfragen vom Request verwendet. Die Momentaufnahme
+ *  wird nur f&uuml;r Pr&uuml;fungen vor einer &Auml;nderung der Ressource
+ *  verwendet, nach exklusiven Sperren werden die Attribute direkt vom Store
+ *  ermittelt. Zudem nimmt das Target den vorab gelesenen Inhalt vom Request
+ *  auf.<br>
+ *  <br>
+ *  Target 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Target {
+
+    /** Store der Ressource */
+    private final Store store;
+
+    /** dekodierter Pfad der Ressource als URI */
+    final String path;
+
+    /** Momentaufnahme der Attribute */
+    private Attributes attributes;
+
+    /** Option wenn die Attribute ermittelt wurden */
+    private boolean resolved;
+
+    /** vorab gelesener Inhalt vom Request, sonst <code>null</code> */
+    byte[] content;
+
+    /**
+     *  Konstruktor, richtet das Target ein.
+     *  @param store Store
+     *  @param path  dekodierter Pfad der Ressource als URI
+     */
+    Target(Store store, String path) {
+
+        this.store = store;
+        this.path  = path;
+    }
+
+    /**
+     *  R&uuml;ckgabe der Attribute der Ressource. Diese werden beim ersten
+     *  Aufruf mit einem einzigen Zugriff auf den Store ermittelt. Existiert die
+     *  Ressource nicht, wird <code>null</code> zur&uuml;ckgegeben.
+     *  @return die Attribute der Ressource, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    Attributes getAttributes() throws IOException {
+
+        if (this.resolved) return this.attributes;
+
+        this.attributes = this.store.getAttributes(this.path);
+        this.resolved   = true;
+
+        return this.attributes;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn die Ressource existiert.
+     *  @return <code>true</code> wenn die Ressource existiert
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    boolean exists() throws IOException {
+
+        return this.getAttributes() != null;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn es sich um ein Verzeichnis handelt.
+     *  @return <code>true</code> wenn es sich um ein Verzeichnis handelt
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    boolean isFolder() throws IOException {
+
+        return this.getAttributes() != null && this.attributes.isFolder();
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn es sich um eine Datei handelt.
+     *  @return <code>true</code> wenn es sich um eine Datei handelt
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    boolean isResource() throws IOException {
+
+        return this.getAttributes() != null && this.attributes.isResource();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,239 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.seanox.webdav.storage.Attributes;
+import com.seanox.webdav.storage.Directory;
+import com.seanox.webdav.storage.Store;
+
+/**
+ *  Traversal durchl&auml;uft die Eintr&auml;ge eines Verzeichnis und ermittelt
+ *  die Attribute der Eintr&auml;ge parallel &uuml;ber einen Pool. Die
+ *  Eintr&auml;ge werden dabei in der Reihenfolge vom Verzeichnis
+ *  zur&uuml;ckgegeben. Die Anzahl der vorausgelesenen Eintr&auml;ge ist durch
+ *  ein Fenster begrenzt, womit der Speicherbedarf auch bei sehr grossen
+ *  Verzeichnissen konstant bleibt. Ohne Pool werden die Attribute seriell beim
+ *  Abruf ermittelt.<br>
+ *  <br>
+ *  Traversal 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Traversal {
+
+    /** Store der Eintr&auml;ge */
+    private final Store store;
+
+    /** Pool zur parallelen Ermittlung der Attribute */
+    private final ExecutorService pool;
+
+    /** Cursor &uuml;ber die Eintr&auml;ge vom Verzeichnis */
+    private final Directory directory;
+
+    /** Pfad vom Verzeichnis als URI mit endendem Slash */
+    private final String uri;
+
+    /** Fenster der vorausgelesenen Eintr&auml;ge in Reihenfolge */
+    private final ArrayDeque<Entry> queue;
+
+    /** maximale Anzahl vorausgelesener Eintr&auml;ge */
+    private final int window;
+
+    /** verbleibende Tiefe unterhalb vom Verzeichnis */
+    final int depth;
+
+    /** Name vom aktuellen Eintrag */
+    private String name;
+
+    /** Attribute vom aktuellen Eintrag */
+    private Attributes attributes;
+
+    /**
+     *  Konstruktor, richtet den Traversal ein.
+     *  @param store     Store
+     *  @param pool      Pool oder <code>null</code> f&uuml;r die serielle
+     *                   Verarbeitung
+     *  @param window    maximale Anzahl vorausgelesener Eintr&auml;ge
+     *  @param uri       Pfad vom Verzeichnis als URI
+     *  @param directory Cursor &uuml;ber die Eintr&auml;ge vom Verzeichnis
+     *  @param depth     verbleibende Tiefe unterhalb vom Verzeichnis
+     */
+    Traversal(Store store, ExecutorService pool, int window, String uri, Directory directory, int depth) {
+
+        this.store     = store;
+        this.pool      = pool;
+        this.directory = directory;
+        this.uri       = uri.endsWith("/") ? uri : uri.concat("/");
+        this.window    = pool == null ? 1 : Math.max(1, window);
+        this.depth     = depth;
+        this.queue     = new ArrayDeque<Entry>(this.window);
+    }
+
+    /**
+     *  Setzt den Traversal auf den n&auml;chsten Eintrag. Das Fenster der
+     *  vorausgelesenen Eintr&auml;ge wird dabei wieder aufgef&uuml;llt.
+     *  @return <code>true</code>, wenn ein weiterer Eintrag existiert
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    boolean next() throws IOException {
+
+        Entry entry;
+
+        this.name       = null;
+        this.attributes = null;
+
+        while (this.queue.size() < this.window && this.directory.next()) {
+
+            entry = new Entry(this.directory.getName());
+
+            if (this.pool != null) entry.future = this.pool.submit(new Fetch(this.store, this.uri.concat(entry.name)));
+
+            this.queue.add(entry);
+        }
+
+        entry = this.queue.poll();
+
+        if (entry == null) return false;
+
+        this.name = entry.name;
+
+        if (entry.future == null) {
+
+            this.attributes = this.store.getAttributes(this.uri.concat(entry.name));
+
+            return true;
+        }
+
+        try {this.attributes = entry.future.get();
+        } catch (InterruptedException exception) {
+
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException();
+
+        } catch (ExecutionException exception) {
+
+            if (exception.getCause() instanceof IOException) throw (IOException)exception.getCause();
+
+            throw new IOException(exception.getCause());
+        }
+
+        return true;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Pfad des aktuellen Eintrags als URI.
+     *  @return der Pfad vom aktuellen Eintrag als URI
+     */
+    String getPath() {
+
+        return this.uri.concat(this.name);
+    }
+
+    /**
+     *  R&uuml;ckgabe der Attribute vom aktuellen Eintrag. Existiert dieser
+     *  nicht mehr, wird <code>null</code> zur&uuml;ckgegeben.
+     *  @return die Attribute vom aktuellen Eintrag, sonst <code>null</code>
+     */
+    Attributes getAttributes() {
+
+        return this.attributes;
+    }
+
+    /**
+     *  Schliesst den Traversal. Noch ausstehende Ermittlungen werden
+     *  abgebrochen und der Cursor vom Verzeichnis geschlossen.
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    void close() throws IOException {
+
+        for (Entry entry : this.queue) {
+
+            if (entry.future != null) entry.future.cancel(false);
+        }
+
+        this.queue.clear();
+
+        this.directory.close();
+    }
+
+    /** Eintrag im Fenster der vorausgelesenen Eintr&auml;ge */
+    private static class Entry {
+
+        /** Name vom Eintrag */
+        private final String name;
+
+        /** ausstehende Ermittlung der Attribute */
+        private Future<Attributes> future;
+
+        /**
+         *  Konstruktor, richtet den Eintrag ein.
+         *  @param name Name vom Eintrag
+         */
+        private Entry(String name) {
+
+            this.name = name;
+        }
+    }
+
+    /** Aufgabe zur Ermittlung der Attribute eines Eintrags */
+    private static class Fetch implements Callable<Attributes> {
+
+        /** Store vom Eintrag */
+        private final Store store;
+
+        /** Pfad vom Eintrag als URI */
+        private final String uri;
+
+        /**
+         *  Konstruktor, richtet die Aufgabe ein.
+         *  @param store Store vom Eintrag
+         *  @param uri   Pfad vom Eintrag als URI
+         */
+        private Fetch(Store store, String uri) {
+
+            this.store = store;
+            this.uri   = uri;
+        }
+
+        /**
+         *  Ermittelt die Attribute vom Eintrag.
+         *  @return die Attribute vom Eintrag, sonst <code>null</code>
+         *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+         */
+        public Attributes call() throws IOException {
+
+            return this.store.getAttributes(this.uri);
+        }
+    }
+}
\ No newline at end of file
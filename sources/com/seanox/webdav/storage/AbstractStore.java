@@ -26,12 +26,22 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.CopyOption;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributes;
@@ -45,9 +55,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.seanox.common.Codec;
 import com.seanox.webdav.storage.lock.Manager;
+import com.seanox.webdav.storage.lock.Token;
 
 /**
  *  Abstrakte Klasse zur Implementierung eines Stores, welcher Methoden
@@ -71,6 +84,12 @@ public abstract class AbstractStore implements Store {
     /** gemeinsamer Manager zur Verwaltung der Sperreintr&auml;ge (global) */
     protected volatile Manager locks;
     
+    /** gemeinsamer Cache der Metadaten (global) */
+    protected volatile Cache cache;
+    
+    /** gemeinsamer Pool f&uuml;r parallele Dateioperationen (global) */
+    protected volatile ForkJoinPool workers;
+    
     /** Wurzelverzeichnis des Stores */
     protected volatile String root;
     
@@ -86,15 +105,39 @@ public abstract class AbstractStore implements Store {
     /** eindeutige Transaktionsnummer */
     protected volatile String signature;
     
+    /** &uuml;bermittelte Sperrkennungen der Transaktion */
+    protected volatile Set<String> tokens;
+    
     /** Option wenn der Store geschlossen wurde */
     protected volatile boolean closed;
     
     /** Option wenn auf den Store nur lesend zugegriffen werden darf */
-    protected volatile boolean readonly;  
+    protected volatile boolean readonly;
+    
+    /** Stufe der Dauerhaftigkeit beim Speichern von Ressourcen */
+    protected volatile int durability;
     
     /** Gr&ouml;sse des Datenpuffers f&uuml;r Datenzugriffe */
     protected volatile int blocksize;
     
+    /** vorbereitete Vorlage f&uuml;r Transaktionen (global) */
+    protected volatile AbstractStore template;
+    
+    /** Bereich f&uuml;r tempor&auml;re Dateien beim Speichern */
+    protected volatile Path staging;
+    
+    /** Name vom Bereich f&uuml;r tempor&auml;re Dateien beim Speichern */
+    private static final String STAGING_AREA = ".staging";
+    
+    /** Gr&ouml;sse der Abschnitte bei der &Uuml;bertragung per FileChannel */
+    private static final long TRANSFER_SEGMENT = 1048576;
+    
+    /** Pr&auml;fix der Transaktionsnummern (global) */
+    protected volatile String prefix;
+    
+    /** Z&auml;hler der Transaktionsnummern (global) */
+    protected volatile AtomicLong sequence;
+    
     /** Constant for parameter STORAGE */
     public static final String PARAMETER_STORAGE = "STORAGE";
     
@@ -110,6 +153,48 @@ public abstract class AbstractStore implements Store {
     /** Constant for parameter BLOCKSIZE */
     public static final String PARAMTER_BLOCKSIZE = "BLOCKSIZE";
     
+    /** Constant for parameter CACHE */
+    public static final String PARAMETER_CACHE = "CACHE";
+    
+    /** Constant for parameter CACHETIME */
+    public static final String PARAMETER_CACHETIME = "CACHETIME";
+    
+    /** Constant for parameter THREADS */
+    public static final String PARAMETER_THREADS = "THREADS";
+    
+    /** Constant for parameter INFINITY */
+    public static final String PARAMETER_INFINITY = "INFINITY";
+    
+    /** Constant for parameter ENTRIES */
+    public static final String PARAMETER_ENTRIES = "ENTRIES";
+    
+    /** Constant for parameter DURATION */
+    public static final String PARAMETER_DURATION = "DURATION";
+    
+    /** Constant for parameter CACHECONTROL */
+    public static final String PARAMETER_CACHECONTROL = "CACHECONTROL";
+    
+    /** Constant for parameter KEEPALIVE */
+    public static final String PARAMETER_KEEPALIVE = "KEEPALIVE";
+    
+    /** Constant for parameter DURABILITY */
+    public static final String PARAMETER_DURABILITY = "DURABILITY";
+    
+    /** Constant for parameter EXPIRATION */
+    public static final String PARAMETER_EXPIRATION = "EXPIRATION";
+    
+    /** Constant for parameter JOURNAL */
+    public static final String PARAMETER_JOURNAL = "JOURNAL";
+    
+    /** Constant for durability none, the data is written without sync */
+    public static final int DURABILITY_NONE = 0;
+    
+    /** Constant for durability data, the content is synced (fdatasync) */
+    public static final int DURABILITY_DATA = 1;
+    
+    /** Constant for durability full, file and directory are synced (fsync) */
+    public static final int DURABILITY_FULL = 2;
+    
     /** Constant for file attribute LastModifiedTime */
     public static final String FILE_ATTRIBUTE_LAST_MODIFIED = "lastModifiedTime";
     
@@ -142,34 +227,98 @@ public abstract class AbstractStore implements Store {
     public Store share(Principal principal, Map<String, String> parameters) throws Exception {
 
         AbstractStore store;
+        AbstractStore template;
         String        string;
+        
+        long          threads;
 
         if (this.closed) throw new IOException("Store already closed");
         
         synchronized (this) {
+            
+            string = parameters.get(AbstractStore.PARAMETER_JOURNAL);
+            string = string == null ? "" : string.trim();
 
             if (this.store  == null) this.store  = this;
             if (this.shares == null) this.shares = Collections.synchronizedSet(new HashSet<String>());
-            if (this.locks  == null) this.locks  = new Manager();
+            if (this.locks  == null) this.locks  = new Manager(AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_EXPIRATION, 0),
+                    string.length() > 0 ? Paths.get(string) : null);
             if (this.system == null) this.system = this.getFileSystem(principal, parameters);
+            if (this.cache  == null) this.cache  = new Cache((int)AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_CACHE, 0),
+                    AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_CACHETIME, 1000), this.system.getSeparator());
+            
+            threads = AbstractStore.getParameter(parameters, AbstractStore.PARAMETER_THREADS, 0);
+            
+            if (this.workers == null && threads > 0) this.workers = new ForkJoinPool((int)Math.min(threads, 0x7FFF));
+            
+            //die Transaktionsnummern basieren auf einem zufaelligen Praefix
+            //und einem fortlaufenden Zaehler, was ohne SecureRandom auskommt
+            if (this.sequence == null) {
+                
+                this.prefix   = UUID.randomUUID().toString().concat("-");
+                this.sequence = new AtomicLong();
+            }
+            
+            //die Vorlage wird nur bei geaenderter Konfiguration neu erstellt,
+            //beim ersten Mal werden verbliebene temporaere Dateien aus
+            //vorherigen Laufzeiten bereinigt
+            if (this.template == null) {
+                
+                this.template = this.prepare(parameters);
+                this.template.cleanup();
+                
+            } else if (this.template.parameters != parameters) this.template = this.prepare(parameters);
+            
+            template = this.template;
         }
         
-        store = (AbstractStore)super.clone();
+        //geschlossene Instanzen werden nicht wiederverwendet, da noch laufende
+        //Zugriffe oder ein wiederholtes close() sonst die neue Transaktion
+        //betreffen wuerden, die Kopie der Vorlage ist dafuer guenstig genug
+        store = (AbstractStore)template.clone();
 
-        store.signature  = UUID.randomUUID().toString();
-        store.principal  = principal;
-        store.parameters = parameters;
+        store.signature = this.prefix.concat(Long.toString(this.sequence.incrementAndGet(), 36));
+        store.tokens    = new HashSet<String>();
+        store.principal = principal;
+        store.closed    = false;
         
         this.shares.add(store.signature);
         
-        store.system = this.system;
-        store.store  = this.store;
-        store.shares = this.shares;
-        store.locks  = this.locks;
+        store.touch();
+
+        return store;
+    }
+    
+    /**
+     *  Erstellt die Vorlage f&uuml;r Transaktionen. Die aus der Konfiguration
+     *  abgeleiteten Werte werden dabei einmalig ermittelt und in jede Instanz
+     *  f&uuml;r Transaktionen &uuml;bernommen.
+     *  @param  parameters Parameter
+     *  @return die Vorlage f&uuml;r Transaktionen
+     *  @throws Exception bei fehlerhafter Einrichtung des Stores
+     */
+    private AbstractStore prepare(Map<String, String> parameters) throws Exception {
+        
+        AbstractStore store;
+        String        string;
+        
+        store = (AbstractStore)super.clone();
+
+        store.signature  = null;
+        store.tokens     = null;
+        store.principal  = null;
+        store.parameters = parameters;
     
         string = parameters.get(AbstractStore.PARAMETER_READONLY);
     
         store.readonly = string == null || !string.equalsIgnoreCase("off");
+        
+        string = parameters.get(AbstractStore.PARAMETER_DURABILITY);
+        string = string == null ? "" : string.trim();
+        
+        if (string.equalsIgnoreCase("full")) store.durability = AbstractStore.DURABILITY_FULL;
+        else if (string.equalsIgnoreCase("data")) store.durability = AbstractStore.DURABILITY_DATA;
+        else store.durability = AbstractStore.DURABILITY_NONE;
     
         string = parameters.get(AbstractStore.PARAMTER_BLOCKSIZE);
     
@@ -189,10 +338,70 @@ public abstract class AbstractStore implements Store {
         if (store.system.equals(FileSystems.getDefault())) store.root = store.system.getPath(store.root).toAbsolutePath().toString();
 
         if (!store.existsObject("/")) throw new IOException("Root directory not exist");
+        
+        store.staging = store.system.getPath(store.root, AbstractStore.STAGING_AREA);
 
         return store;
     }    
     
+    /**
+     *  Entfernt verbliebene tempor&auml;re Dateien aus dem Bereich f&uuml;r
+     *  das Speichern, z.B. nach einem Abbruch der vorherigen Laufzeit.
+     *  Fehler beim Entfernen werden ignoriert.
+     */
+    private void cleanup() {
+        
+        DirectoryStream<Path> stream;
+        
+        if (this.readonly || !Files.isDirectory(this.staging)) return;
+        
+        try {stream = Files.newDirectoryStream(this.staging);
+        } catch (IOException exception) {
+            return;
+        }
+        
+        try {
+            
+            for (Path path : stream) {
+                
+                try {Files.deleteIfExists(path);
+                } catch (IOException exception) {
+                    
+                    //keine Fehlerbehandlung vorgesehen
+                }
+            }
+            
+        } finally {
+            
+            try {stream.close();
+            } catch (IOException exception) {
+                
+                //keine Fehlerbehandlung vorgesehen
+            }
+        }
+    }
+    
+    /**
+     *  Ermittelt den numerischen Wert vom angegebenen Parameter. Ist dieser
+     *  nicht gesetzt oder ung&uuml;ltig, wird der Standardwert verwendet.
+     *  @param  parameters Parameter
+     *  @param  name       Name vom Parameter
+     *  @param  standard   Standardwert
+     *  @return der numerische Wert vom Parameter, sonst der Standardwert
+     */
+    public static long getParameter(Map<String, String> parameters, String name, long standard) {
+        
+        String string;
+        
+        string = parameters.get(name);
+        
+        try {return string == null ? standard : Long.parseLong(string.trim());
+        } catch (Exception exception) {
+            
+            return standard;
+        }
+    }
+    
     /**
      *  Erstellt eine Instanz vom zu verwendenden FileSystem auf Basis der
      *  &uuml;bergeben Berechtigungn und Parameter.
@@ -209,22 +418,167 @@ public abstract class AbstractStore implements Store {
      *  @return der ermittelte ETag f&uuml;r die per URI angegebenen Ressource
      *  @throws IOException bei fehlerhaftem Zugriff auf den Store
      */
-    public synchronized String getETag(String uri) throws IOException {
+    public String getETag(String uri) throws IOException {
     
-        StringBuffer string;
+        Attributes attributes;
     
         if (this.closed) throw new IOException("Store already closed");
     
-        string = new StringBuffer();
-    
-        string.append("W/\"");
-        string.append(getResourceLength(uri));
-        string.append(getLastModified(uri));
-        string.append("\"");
+        attributes = this.getAttributes(uri);
+        
+        if (attributes == null) throw new NoSuchFileException(uri);
 
-        return string.toString();
+        return attributes.getETag();
     }    
     
+    /**
+     *  Ermittelt die Attribute der per URI angegebenen Ressource als
+     *  Momentaufnahme mit einem einzigen Zugriff auf das Dateisystem.
+     *  R&uuml;ckgabe die Momentaufnahme der Attribute oder <code>null</code>,
+     *  wenn die Ressource nicht existiert.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return die Momentaufnahme der Attribute, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public Attributes getAttributes(String uri) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        if (this.isReserved(uri)) return null;
+        
+        return this.getAttributes(this.system.getPath(this.root, uri));
+    }
+    
+    /**
+     *  Ermittelt die Attribute zum Pfad im Dateisystem, z.B. zu einem vom
+     *  DirectoryStream gelieferten Eintrag, ohne diesen erneut aus der URI
+     *  abzuleiten. Reservierte Pfade werden dabei nicht gepr&uuml;ft.
+     *  R&uuml;ckgabe die Momentaufnahme der Attribute oder <code>null</code>,
+     *  wenn die Ressource nicht existiert.
+     *  @param  path Pfad der Ressource
+     *  @return die Momentaufnahme der Attribute, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    Attributes getAttributes(Path path) throws IOException {
+        
+        Attributes attributes;
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        attributes = this.fetchAttributes(path);
+        
+        if (attributes == null || !this.readonly) return attributes;
+        
+        return new Attributes(attributes, true);
+    }
+    
+    /**
+     *  Ermittelt die Attribute der angegebenen Ressource. Ist der Cache aktiv,
+     *  werden die Attribute bevorzugt aus diesem verwendet, sonst aus dem
+     *  Dateisystem gelesen und im Cache abgelegt.
+     *  @param  path Pfad der Ressource
+     *  @return die Momentaufnahme der Attribute, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    private Attributes fetchAttributes(Path path) throws IOException {
+        
+        Attributes  attributes;
+        Cache.Entry entry;
+        String      string;
+        
+        long        generation;
+        
+        if (!this.cache.isEnabled()) return this.readAttributes(path);
+        
+        string = path.toString();
+        entry  = this.cache.get(string);
+        
+        if (entry != null) return entry.attributes;
+        
+        generation = this.cache.getGeneration();
+        attributes = this.readAttributes(path);
+        
+        this.cache.put(string, attributes, generation);
+        
+        return attributes;
+    }
+    
+    /**
+     *  Verwirft die Eintr&auml;ge im Cache zum angegebenen Pfad und dessen
+     *  &uuml;bergeordnetem Verzeichnis, optional auch die Eintr&auml;ge aller
+     *  darunter liegenden Pfade.
+     *  @param path    Pfad der Ressource
+     *  @param subtree <code>true</code> verwirft auch die Eintr&auml;ge aller
+     *                 darunter liegenden Pfade
+     */
+    protected void invalidate(Path path, boolean subtree) {
+        
+        if (!this.cache.isEnabled()) return;
+        
+        this.cache.invalidate(path.toString(), subtree);
+        
+        if (path.getParent() != null) this.cache.invalidate(path.getParent().toString(), false);
+    }
+    
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn der per URI angegebene Pfad vom
+     *  Store selbst verwendet wird. Solche Pfade existieren f&uuml;r den
+     *  Client nicht, werden nicht aufgelistet und sind nicht beschreibbar.
+     *  Reserviert ist hier der Bereich f&uuml;r tempor&auml;re Dateien beim
+     *  Speichern.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return <code>true</code>, wenn der Pfad vom Store verwendet wird
+     */
+    protected boolean isReserved(String uri) {
+        
+        int length;
+        
+        if (uri == null) return false;
+        
+        length = AbstractStore.STAGING_AREA.length() +1;
+        
+        if (!uri.startsWith("/".concat(AbstractStore.STAGING_AREA))) return false;
+        
+        return uri.length() == length || uri.charAt(length) == '/';
+    }
+    
+    /**
+     *  Meldet eine Aktivit&auml;t der Transaktion an den Lock-Manager. Die
+     *  Sperren der Transaktion laufen damit bei l&auml;nger andauernden
+     *  Zugriffen nicht ab, verwaiste Transaktionen melden keine
+     *  Aktivit&auml;t mehr und deren Sperren laufen ab.
+     */
+    void touch() {
+        
+        if (!this.closed) this.locks.touch(this.signature);
+    }
+    
+    /**
+     *  Liest die Attribute der angegebenen Ressource aus dem Dateisystem.
+     *  Unterst&uuml;tzt das Dateisystem keine DOS-Dateiattribute, werden nur
+     *  die allgemeinen Dateiattribute verwendet. R&uuml;ckgabe die
+     *  Momentaufnahme der Attribute oder <code>null</code>, wenn die Ressource
+     *  nicht existiert oder nicht erreichbar ist.
+     *  @param  path Pfad der Ressource
+     *  @return die Momentaufnahme der Attribute, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    protected Attributes readAttributes(Path path) throws IOException {
+        
+        try {
+            
+            try {return new Attributes(Files.readAttributes(path, DosFileAttributes.class));
+            } catch (UnsupportedOperationException exception) {
+                
+                return new Attributes(Files.readAttributes(path, BasicFileAttributes.class));
+            }
+            
+        } catch (FileSystemException exception) {
+            
+            return null;
+        }
+    }
+    
     /**
      *  R&uuml;ckgabe <code>true</code> wenn auf Ressourcen nur lesemd
      *  zugeriffen werden kann., sonst <code>false</code>.
@@ -246,18 +600,15 @@ public abstract class AbstractStore implements Store {
      *          zugeriffen werden kann., sonst <code>false</code>
      *  @throws IOException bei fehlerhaftem Zugriff auf den Store
      */
-    public synchronized boolean isReadOnly(String uri) throws IOException {
+    public boolean isReadOnly(String uri) throws IOException {
         
-        Path              path;        
-        DosFileAttributes attributes;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
 
         if (this.readonly) return true;
         
-        path = this.system.getPath(this.root, uri);
-        
-        attributes = Files.readAttributes(path, DosFileAttributes.class);
+        attributes = this.getAttributes(uri);
         
         return attributes == null ? false : attributes.isReadOnly();
     }    
@@ -283,7 +634,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, FILE_ATTRIBUTE_READONLY, Boolean.valueOf(readOnly));
+        try {Files.setAttribute(path, FILE_ATTRIBUTE_READONLY, Boolean.valueOf(readOnly));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }    
     
     /**
@@ -300,6 +655,8 @@ public abstract class AbstractStore implements Store {
     public synchronized boolean lock(String uri) throws IOException {
         
         if (this.closed) throw new IOException("Store already closed");
+        
+        this.touch();
 
         return this.locks.lock(uri, this.signature);
     }
@@ -319,6 +676,12 @@ public abstract class AbstractStore implements Store {
     public synchronized boolean lock(String uri, boolean exclusive) throws IOException {
         
         if (this.closed) throw new IOException("Store already closed");
+        
+        //dauerhafte Sperren ohne uebermittelte Sperrkennung verhindern das
+        //Aendern der Ressource und der darunter liegenden Ressourcen
+        if (exclusive && this.locks.isClaimed(uri, this.tokens)) return false;
+        
+        this.touch();
 
         return this.locks.lock(uri, this.signature, exclusive);
     }
@@ -336,6 +699,97 @@ public abstract class AbstractStore implements Store {
         this.locks.unlock(uri, this.signature);
     }
 
+    /**
+     *  &Uuml;bernimmt eine mit dem Request &uuml;bermittelte Sperrkennung.
+     *  Exklusive Sperren dieser Instanz vom Store werden nur eingerichtet,
+     *  wenn f&uuml;r alle dauerhaften Sperren der Ressource und der darunter
+     *  liegenden Ressourcen die Sperrkennung &uuml;bermittelt wurde.
+     *  @param  token Sperrkennung
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public synchronized void submit(String token) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        if (token != null && token.trim().length() > 0) this.tokens.add(token.trim());
+    }
+
+    /**
+     *  Richtet eine dauerhafte Sperre (WebDAV Lock) mit neuer Sperrkennung
+     *  f&uuml;r die per URI angegebene Ressource ein. R&uuml;ckgabe
+     *  <code>null</code>, wenn eine bestehende dauerhafte Sperre die Sperrung
+     *  verhindert.
+     *  @param  uri       Pfad der Ressource als URI
+     *  @param  exclusive <code>true</code> bei exklusiver Sperre
+     *  @param  deep      <code>true</code> bei unbegrenzter Tiefe
+     *  @param  owner     Eigent&uuml;mer der Sperre oder <code>null</code>
+     *  @param  timeout   Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                    Begrenzung
+     *  @return die eingerichtete Sperre, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public synchronized Token acquire(String uri, boolean exclusive, boolean deep, String owner, long timeout) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        return this.locks.acquire(uri, exclusive, deep, owner, timeout);
+    }
+
+    /**
+     *  Erneuert die dauerhafte Sperre zur angegebenen Sperrkennung.
+     *  @param  token   Sperrkennung
+     *  @param  timeout Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                  Begrenzung
+     *  @return die erneuerte Sperre, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public synchronized Token refresh(String token, long timeout) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        return this.locks.refresh(token, timeout);
+    }
+
+    /**
+     *  Hebt die dauerhafte Sperre zur angegebenen Sperrkennung auf.
+     *  @param  token Sperrkennung
+     *  @return <code>true</code>, wenn die Sperre aufgehoben wurde
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public synchronized boolean revoke(String token) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        return this.locks.revoke(token);
+    }
+
+    /**
+     *  Hebt alle dauerhaften Sperren der per URI angegebenen Ressource und
+     *  der darunter liegenden Ressourcen auf.
+     *  @param  uri Pfad der Ressource als URI
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public synchronized void revokeAll(String uri) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        this.locks.revokeAll(uri);
+    }
+
+    /**
+     *  Ermittelt die f&uuml;r die per URI angegebene Ressource geltenden
+     *  dauerhaften Sperren.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return die geltenden dauerhaften Sperren
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */
+    public Token[] getTokens(String uri) throws IOException {
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        return this.locks.getTokens(uri);
+    }
+
     /**
      *  R&uuml;ckgabe <code>true</code> wenn die bei per URI angegebene
      *  Ressource gesperrt ist. Mit dieser Instanz vom Store gesetzte Sperren
@@ -372,13 +826,9 @@ public abstract class AbstractStore implements Store {
      */
     public boolean existsObject(String uri) throws IOException {
         
-        Path path;
-    
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
-        
-        return Files.exists(path);
+        return this.getAttributes(uri) != null;
     }    
 
     /**
@@ -391,13 +841,13 @@ public abstract class AbstractStore implements Store {
      */
     public boolean isFolder(String uri) throws IOException {
         
-        Path path;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
+        attributes = this.getAttributes(uri);
         
-        return Files.isDirectory(path);
+        return attributes != null && attributes.isFolder();
     }
 
     /**
@@ -410,13 +860,13 @@ public abstract class AbstractStore implements Store {
      */
     public boolean isResource(String uri) throws IOException {
         
-        Path path;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
+        attributes = this.getAttributes(uri);
         
-        return Files.isRegularFile(path);        
+        return attributes != null && attributes.isResource();
     }
 
     /**
@@ -429,15 +879,11 @@ public abstract class AbstractStore implements Store {
      */
     public boolean canRead(String uri) throws IOException {
         
-        Path path;
-        
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
-        
-        if (!this.existsObject(uri)) path = path.getParent();
+        if (!this.existsObject(uri)) return false;
         
-        return this.existsObject(uri) && Files.isReadable(path);
+        return Files.isReadable(this.system.getPath(this.root, uri));
     }
 
     /**
@@ -454,7 +900,7 @@ public abstract class AbstractStore implements Store {
         
         if (this.closed) throw new IOException("Store already closed");
         
-        if (this.readonly || this.isReadOnly(uri)) return false;
+        if (this.readonly || this.isReserved(uri) || this.isReadOnly(uri)) return false;
         
         path = this.system.getPath(this.root, uri);
         
@@ -473,16 +919,13 @@ public abstract class AbstractStore implements Store {
      */
     public boolean isHidden(String uri) throws IOException {
         
-        Path              path;
-        DosFileAttributes attributes;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
 
         if (this.readonly) return true;
         
-        path = this.system.getPath(this.root, uri);
-        
-        attributes = Files.readAttributes(path, DosFileAttributes.class);
+        attributes = this.getAttributes(uri);
         
         return attributes == null ? false : attributes.isHidden();
     }
@@ -508,7 +951,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, FILE_ATTRIBUTE_HIDDEN, Boolean.valueOf(hidden));
+        try {Files.setAttribute(path, FILE_ATTRIBUTE_HIDDEN, Boolean.valueOf(hidden));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }    
     
     /**
@@ -521,16 +968,13 @@ public abstract class AbstractStore implements Store {
      */
     public boolean isArchive(String uri) throws IOException {
         
-        Path              path;
-        DosFileAttributes attributes;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
 
         if (this.readonly) return true;
         
-        path = this.system.getPath(this.root, uri);
-        
-        attributes = Files.readAttributes(path, DosFileAttributes.class);
+        attributes = this.getAttributes(uri);
         
         return attributes == null ? false : attributes.isArchive();
     }
@@ -556,7 +1000,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, FILE_ATTRIBUTE_ARCHIVE, Boolean.valueOf(archive));
+        try {Files.setAttribute(path, FILE_ATTRIBUTE_ARCHIVE, Boolean.valueOf(archive));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }    
     
     /**
@@ -569,16 +1017,13 @@ public abstract class AbstractStore implements Store {
      */
     public boolean isSystem(String uri) throws IOException {
         
-        Path              path;
-        DosFileAttributes attributes;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
 
         if (this.readonly) return true;
         
-        path = this.system.getPath(this.root, uri);
-        
-        attributes = Files.readAttributes(path, DosFileAttributes.class);
+        attributes = this.getAttributes(uri);
         
         return attributes == null ? false : attributes.isSystem();
     }
@@ -604,7 +1049,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, FILE_ATTRIBUTE_SYSTEM, Boolean.valueOf(system));
+        try {Files.setAttribute(path, FILE_ATTRIBUTE_SYSTEM, Boolean.valueOf(system));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }    
     
     /**
@@ -625,7 +1074,11 @@ public abstract class AbstractStore implements Store {
         
         if (Files.exists(path) && Files.isDirectory(path)) return;
         
-        Files.createDirectories(path);
+        try {Files.createDirectories(path);
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }
 
     /**
@@ -644,13 +1097,23 @@ public abstract class AbstractStore implements Store {
         
         path = this.system.getPath(this.root, uri);
         
-        Files.newOutputStream(path, StandardOpenOption.CREATE_NEW).close();
+        try {Files.newOutputStream(path, StandardOpenOption.CREATE_NEW).close();
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }    
     
     /**
      *  Speichert die Daten aus dem &uuml;bergeben Datenstrom in der per URI
-     *  angegebenen Ressource. Die Parameter <code>contentType</code> und
-     *  <code>characterEncoding</code> werden ignoriert.
+     *  angegebenen Ressource. Die Daten werden dazu in eine tempor&auml;re
+     *  Datei im selben Verzeichnis geschrieben, welche erst nach der
+     *  vollst&auml;ndigen &Uuml;bertragung, wenn m&ouml;glich atomar, die
+     *  Ressource ersetzt. Leser sehen damit nie unvollst&auml;ndige Daten.
+     *  Abh&auml;ngig von der Dauerhaftigkeit werden die Daten und das
+     *  Verzeichnis vorher synchronisiert. Die Parameter
+     *  <code>contentType</code> und <code>characterEncoding</code> werden
+     *  ignoriert.
      *  @param  uri      Pfad der Ressource als URI
      *  @param  input    Dateneingangsstrom
      *  @param  type     ContentType (wird ignoriert)
@@ -660,12 +1123,31 @@ public abstract class AbstractStore implements Store {
      */
     public void setResourceContent(String uri, InputStream input, String type, String encoding) throws IOException {
         
-        Path         path;
-        OutputStream output;
-        
-        byte[]       bytes;
+        this.setResourceContent(uri, input, -1, type, encoding);
+    }
+    
+    /**
+     *  Speichert die Daten aus dem &uuml;bergeben Datenstrom mit bekannter
+     *  L&auml;nge in der per URI angegebenen Ressource. Bei bekannter
+     *  L&auml;nge werden die Daten per <code>transferFrom</code> direkt in
+     *  den FileChannel &uuml;bertragen. Die Daten werden zuerst im
+     *  versteckten Bereich <code>.staging</code> im Wurzelverzeichnis
+     *  abgelegt und ersetzen die Ressource danach atomar. Enden die Daten
+     *  vorzeitig, bleibt die Ressource unver&auml;ndert. Die Parameter <code>contentType</code> und
+     *  <code>characterEncoding</code> werden ignoriert.
+     *  @param  uri      Pfad der Ressource als URI
+     *  @param  input    Dateneingangsstrom
+     *  @param  length   L&auml;nge der Daten, <code>-1</code> wenn unbekannt
+     *  @param  type     ContentType (wird ignoriert)
+     *  @param  encoding CharacterEncoding (wird ignoriert)
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datenstr&ouml;me
+     *          oder das Dateisystem
+     */
+    public void setResourceContent(String uri, InputStream input, long length, String type, String encoding) throws IOException {
         
-        int          size;        
+        Path                path;
+        Path                temp;
+        SeekableByteChannel channel;
         
         if (this.closed) throw new IOException("Store already closed");
     
@@ -673,19 +1155,73 @@ public abstract class AbstractStore implements Store {
         
         path = this.system.getPath(this.root, uri);
         
-        bytes  = new byte[this.blocksize];
-        output = Files.newOutputStream(path, StandardOpenOption.CREATE);
-        output = new BufferedOutputStream(output);
-
+        if (path.getParent() == null) throw new IOException("Invalid resource path");
+        
+        temp = null;
+        
         try {
             
-            if (!(input instanceof BufferedInputStream)) input = new BufferedInputStream(input, this.blocksize);
-
-            while ((size = input.read(bytes, 0, bytes.length)) >= 0) {
+            //die Daten werden zuerst in einer temporaeren Datei im reservierten
+            //Bereich abgelegt, der fuer den Client nicht sichtbar ist
+            Files.createDirectories(this.staging);
+            
+            temp = this.staging.resolve(UUID.randomUUID().toString().concat(".tmp"));
+            
+            channel = Files.newByteChannel(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            
+            try {
+                
+                //beim Ersetzen bleiben die Berechtigungen der Ressource erhalten
+                if (Files.exists(path)) {
+                    
+                    try {Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+                    } catch (UnsupportedOperationException exception) {
+                        
+                        //keine Fehlerbehandlung vorgesehen
+                    }
+                }
+                
+                this.writeContent(channel, input, length);
+                
+                this.synchronize(channel);
+                
+            } finally {
+                
+                channel.close();
+            }
             
-                output.write(bytes, 0, size);
+            //die temporaere Datei ersetzt die Ressource atomar
+            try {Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
             }
             
+            temp = null;
+            
+            //bei voller Dauerhaftigkeit wird auch das Verzeichnis synchronisiert
+            if (this.durability >= AbstractStore.DURABILITY_FULL
+                    && this.system.equals(FileSystems.getDefault())) {
+                
+                try {channel = FileChannel.open(path.getParent(), StandardOpenOption.READ);
+                } catch (IOException exception) {
+                    
+                    //nicht alle Systeme unterstuetzen Verzeichnisse als Kanal
+                    channel = null;
+                }
+                
+                if (channel != null) {
+                    
+                    try {this.synchronize(channel);
+                    } catch (IOException exception) {
+                        
+                        //keine Fehlerbehandlung vorgesehen
+                    } finally {
+                        
+                        channel.close();
+                    }
+                }
+            }
+        
         } finally {
         
             try {input.close();
@@ -694,14 +1230,94 @@ public abstract class AbstractStore implements Store {
                 //keine Fehlerbehandlung vorgesehen
             }
         
-            try {output.close();
-            } catch (Exception exception) {
-
-                //keine Fehlerbehandlung vorgesehen
+            //nach Fehlern wird die temporaere Datei verworfen
+            if (temp != null) {
+                
+                try {Files.deleteIfExists(temp);
+                } catch (Exception exception) {
+                    
+                    //keine Fehlerbehandlung vorgesehen
+                }
             }
+            
+            this.invalidate(path, false);
         }        
     }    
     
+    /**
+     *  Schreibt die Daten aus dem Datenstrom in den Datenkanal. Bei bekannter
+     *  L&auml;nge und einem FileChannel werden die Daten per
+     *  <code>transferFrom</code> ohne zus&auml;tzliche Puffer &uuml;bertragen.
+     *  Enden die Daten vor der angegebenen L&auml;nge, wird eine IOException
+     *  ausgel&ouml;st.
+     *  @param  channel Datenkanal
+     *  @param  input   Dateneingangsstrom
+     *  @param  length  L&auml;nge der Daten, <code>-1</code> wenn unbekannt
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datenstr&ouml;me
+     *          oder bei unvollst&auml;ndigen Daten
+     */
+    private void writeContent(SeekableByteChannel channel, InputStream input, long length) throws IOException {
+        
+        OutputStream        output;
+        ReadableByteChannel source;
+        
+        byte[]              bytes;
+        
+        long                offset;
+        long                volume;
+        int                 size;
+        
+        if (length >= 0 && channel instanceof FileChannel) {
+            
+            if (input instanceof ReadableByteChannel) source = (ReadableByteChannel)input;
+            else source = Channels.newChannel(input);
+            
+            //transferFrom liefert 0 am Ende der Daten, die Uebertragung
+            //erfolgt in Abschnitten, zwischen denen die Aktivitaet der
+            //Transaktion gemeldet wird, damit deren Sperren nicht ablaufen
+            for (offset = 0; offset < length; offset += volume) {
+                
+                volume = ((FileChannel)channel).transferFrom(source, offset, Math.min(length -offset, AbstractStore.TRANSFER_SEGMENT));
+                
+                if (volume <= 0) throw new IOException("Incomplete content");
+                
+                this.touch();
+            }
+            
+            return;
+        }
+        
+        bytes  = new byte[this.blocksize];
+        output = new BufferedOutputStream(Channels.newOutputStream(channel), this.blocksize);
+        
+        for (offset = 0; (length < 0 || offset < length)
+                && (size = input.read(bytes, 0, length < 0 ? bytes.length : (int)Math.min(bytes.length, length -offset))) >= 0; offset += size) {
+        
+            output.write(bytes, 0, size);
+            
+            this.touch();
+        }
+        
+        output.flush();
+        
+        if (length >= 0 && offset < length) throw new IOException("Incomplete content");
+    }
+    
+    /**
+     *  Synchronisiert den Datenkanal entsprechend der Dauerhaftigkeit mit dem
+     *  Speichermedium. Datenkan&auml;le, welche keine FileChannel sind, werden
+     *  nicht synchronisiert.
+     *  @param  channel Datenkanal
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    private void synchronize(SeekableByteChannel channel) throws IOException {
+        
+        if (this.durability <= AbstractStore.DURABILITY_NONE
+                || !(channel instanceof FileChannel)) return;
+        
+        ((FileChannel)channel).force(this.durability >= AbstractStore.DURABILITY_FULL);
+    }
+    
     /**
      *  Ermittelt das Datum der letzten &Auml;nderung der per URI angegebenen
      *  Ressource.
@@ -712,19 +1328,15 @@ public abstract class AbstractStore implements Store {
      */
     public Date getLastModified(String uri) throws IOException {
         
-        FileTime time;
-        Path     path;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
-        
-        time = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime();
+        attributes = this.getAttributes(uri);
         
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).creationTime();
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).lastAccessTime();
+        if (attributes == null) throw new NoSuchFileException(uri);
         
-        return new Date(time.toMillis());        
+        return attributes.getLastModified();
     }    
    
     /**
@@ -747,7 +1359,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");        
         
-        Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_LAST_MODIFIED, FileTime.fromMillis(time.getTime()));
+        try {Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_LAST_MODIFIED, FileTime.fromMillis(time.getTime()));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }
     
     /**
@@ -762,19 +1378,15 @@ public abstract class AbstractStore implements Store {
      */
     public Date getLastAccessTime(String uri) throws IOException {
         
-        FileTime time;
-        Path     path;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
-        
-        time = Files.readAttributes(path, BasicFileAttributes.class).lastAccessTime();
+        attributes = this.getAttributes(uri);
         
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime();
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).creationTime();
+        if (attributes == null) throw new NoSuchFileException(uri);
         
-        return new Date(time.toMillis());
+        return attributes.getLastAccessTime();
     }
     
     /**
@@ -796,7 +1408,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_LAST_ACCESS_TIME, FileTime.fromMillis(time.getTime()));
+        try {Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_LAST_ACCESS_TIME, FileTime.fromMillis(time.getTime()));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }
 
     /**
@@ -811,19 +1427,15 @@ public abstract class AbstractStore implements Store {
      */
     public Date getCreationTime(String uri) throws IOException {
         
-        FileTime time;
-        Path     path;
+        Attributes attributes;
         
         if (this.closed) throw new IOException("Store already closed");
         
-        path = this.system.getPath(this.root, uri);
-        
-        time = Files.readAttributes(path, BasicFileAttributes.class).creationTime();
+        attributes = this.getAttributes(uri);
         
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime();
-        if (time == null) time = Files.readAttributes(path, BasicFileAttributes.class).lastAccessTime();
+        if (attributes == null) throw new NoSuchFileException(uri);
         
-        return new Date(time.toMillis());
+        return attributes.getCreationTime();
     }
     
     /**
@@ -845,7 +1457,11 @@ public abstract class AbstractStore implements Store {
         
         if (attributes == null) throw new IOException("Method not supported.");
         
-        Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_CREATION_TIME, FileTime.fromMillis(time.getTime()));
+        try {Files.setAttribute(path, AbstractStore.FILE_ATTRIBUTE_CREATION_TIME, FileTime.fromMillis(time.getTime()));
+        } finally {
+            
+            this.invalidate(path, false);
+        }
     }     
     
     /**
@@ -859,28 +1475,68 @@ public abstract class AbstractStore implements Store {
      */
     public String[] getChildrenNames(String uri) throws IOException {
 
-        DirectoryStream<Path> directory;
-        List<String>          list;
-        Path                  path;
-        
-        if (this.closed) throw new IOException("Store already closed");
-        
-        path = this.system.getPath(this.root, uri);
-        
-        if (!Files.isDirectory(path)) return null;
+        Directory    directory;
+        List<String> list;
 
-        list = new ArrayList<String>();
+        directory = this.openDirectory(uri);
 
-        directory = Files.newDirectoryStream(path);
+        if (directory == null) return null;
 
-        try {for (Path child : directory) list.add(child.getFileName().toString());
+        list = new ArrayList<String>();
+
+        try {while (directory.next()) list.add(directory.getName());
         } finally {
             
             directory.close();
         }
         
         return list.toArray(new String[0]);
-    }    
+    }
+    
+    /**
+     *  &Ouml;ffnet einen Cursor &uuml;ber die Eintr&auml;ge eines Verzeichnis.
+     *  Die Eintr&auml;ge werden erst beim Durchlaufen gelesen. R&uuml;ckgabe
+     *  <code>null</code>, wenn es sich um kein Verzeichnis handelt.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return der Cursor &uuml;ber die Eintr&auml;ge des Verzeichnis oder
+     *          <code>null</code>, wenn es sich um kein Verzeichnis handelt
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public Directory openDirectory(String uri) throws IOException {
+
+        DirectoryStream<Path> stream;
+        Path                  path;
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        path = this.system.getPath(this.root, uri);
+
+        try {stream = Files.newDirectoryStream(path);
+        } catch (NotDirectoryException exception) {
+            return null;
+        } catch (NoSuchFileException exception) {
+            return null;
+        }
+        
+        try {return new Cursor(this, uri, stream);
+        } catch (IOException exception) {
+            
+            stream.close();
+
+            throw exception;
+        }
+    }
+    
+    /**
+     *  R&uuml;ckgabe vom gemeinsamen Pool f&uuml;r parallele Dateioperationen.
+     *  Der Pool wird mit dem Store beendet.
+     *  @return der Pool, sonst <code>null</code> ohne konfigurierte
+     *          Parallelit&auml;t
+     */
+    public ForkJoinPool getWorkers() {
+        
+        return this.workers;
+    }
     
     /**
      *  R&uuml;ckgabe vom Datenstrom der per URI angegebenen Ressource.
@@ -901,6 +1557,33 @@ public abstract class AbstractStore implements Store {
         return new BufferedInputStream(Files.newInputStream(path), this.blocksize);
     }    
     
+    /**
+     *  R&uuml;ckgabe vom Datenkanal der per URI angegebenen Ressource. Beim
+     *  Standard-Dateisystem handelt es sich dabei um einen FileChannel.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return der Datenkanal der per URI angegebenen Ressource
+     *  @throws IOException bei ferhlerhaften Zugriff auf die Ressource
+     *          oder den Datenkanal
+     */
+    public SeekableByteChannel getResourceChannel(String uri) throws IOException {
+        
+        Path path;
+        
+        if (this.closed) throw new IOException("Store already closed");
+    
+        if (this.isReserved(uri)) throw new IOException("Read access forbidden");
+        
+        path = this.system.getPath(this.root, uri);
+    
+        //fehlende oder nicht lesbare Ressourcen werden beim Oeffnen erkannt,
+        //womit die vorherige Abfrage der Attribute entfaellt
+        try {return Files.newByteChannel(path, StandardOpenOption.READ);
+        } catch (FileSystemException exception) {
+            
+            throw new IOException("Read access forbidden");
+        }
+    }    
+    
     /**
      *  Ermittelt die L&auml;nge der per URI angegebenen Ressource in Bytes.
      *  @param  uri Pfad der Ressource als URI
@@ -909,15 +1592,39 @@ public abstract class AbstractStore implements Store {
      */
     public long getResourceLength(String uri) throws IOException {
         
+        Attributes attributes;
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        attributes = this.getAttributes(uri);
+        
+        return attributes == null ? -1 : attributes.getLength();
+    }
+    
+    /**
+     *  Ermittelt den verf&uuml;gbaren Speicherplatz f&uuml;r neue Daten an der
+     *  per URI angegebenen Position in Bytes. Existiert diese nicht, wird das
+     *  &uuml;bergeordnete Verzeichnis verwendet.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return der verf&uuml;gbare Speicherplatz in Bytes, sonst <code>-1</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public long getUsableSpace(String uri) throws IOException {
+        
         Path path;
         
         if (this.closed) throw new IOException("Store already closed");
         
         path = this.system.getPath(this.root, uri);
         
-        if (!Files.exists(path) || Files.isDirectory(path)) return -1;
-
-        return Files.size(path);
+        while (path != null && !Files.exists(path)) path = path.getParent();
+        
+        if (path == null) return -1;
+        
+        try {return Files.getFileStore(path).getUsableSpace();
+        } catch (UnsupportedOperationException exception) {
+            return -1;
+        }
     }
     
     /**
@@ -957,9 +1664,18 @@ public abstract class AbstractStore implements Store {
         source = this.system.getPath(this.root, uri).toAbsolutePath();
         target = this.system.getPath(this.root, destination).toAbsolutePath();
 
-        Files.createDirectories(target.getParent());
-
-        Files.move(source, target, options);
+        try {
+            
+            Files.createDirectories(target.getParent());
+    
+            Files.move(source, target, options);
+            
+        } finally {
+            
+            this.invalidate(source, true);
+            this.invalidate(target, true);
+            this.invalidate(target.getParent(), false);
+        }
     }    
     
     /**
@@ -982,11 +1698,67 @@ public abstract class AbstractStore implements Store {
         source = this.system.getPath(this.root, uri).toAbsolutePath();
         target = this.system.getPath(this.root, destination).toAbsolutePath();
         
-        Files.createDirectories(target.getParent());
-
-        Files.copy(source, target, options);
+        try {
+            
+            Files.createDirectories(target.getParent());
+    
+            Files.copy(source, target, options);
+            
+        } finally {
+            
+            this.invalidate(target, true);
+            this.invalidate(target.getParent(), false);
+        }
     }    
     
+    /**
+     *  Kopiert das per URI angegebene Verzeichnis mit den Attributen im
+     *  Dateisystem. Die Dateien werden dabei parallel &uuml;ber den Pool vom
+     *  Store kopiert. Fehler einzelner Eintr&auml;ge f&uuml;hren nicht zum
+     *  Abbruch, sondern werden mit dem Zielpfad als URI zur&uuml;ckgegeben.
+     *  @param  uri         Pfad vom Verzeichnis als URI
+     *  @param  destination Zielpfad vom Verzeichnis als URI
+     *  @param  recursive   Option zum Kopieren vom kompletten Inhalt
+     *  @return die Fehler einzelner Eintr&auml;ge mit dem Zielpfad als URI
+     *  @throws IOException wenn das Zielverzeichnis nicht angelegt werden kann
+     */
+    public Map<String, IOException> copyFolder(String uri, String destination, boolean recursive) throws IOException {
+        
+        Batch  batch;
+        Copier copier;
+        Path   source;
+        Path   target;
+
+        if (this.closed) throw new IOException("Store already closed");
+        
+        if (!this.canRead(uri)) throw new IOException("Read access forbidden");
+        if (!this.canWrite(destination)) throw new IOException("Write access forbidden");
+
+        source = this.system.getPath(this.root, uri).toAbsolutePath();
+        target = this.system.getPath(this.root, destination).toAbsolutePath();
+        
+        batch  = new Batch(this.workers, this.workers == null ? 1 : this.workers.getParallelism() *4);
+        copier = new Copier(this, source, uri, target, destination, recursive, batch);
+        
+        try {
+            
+            Files.createDirectories(target.getParent());
+            
+            Files.walkFileTree(source, copier);
+            
+            copier.complete();
+            
+        } finally {
+            
+            batch.cancel();
+            
+            this.invalidate(target, true);
+            this.invalidate(target.getParent(), false);
+        }
+        
+        return batch.getErrors();
+    }
+    
     /**
      *  Entfernt die per URI angegebene Ressource aus dem Dateisystem.
      *  @param  uri Pfad der Ressource als URI
@@ -1002,8 +1774,54 @@ public abstract class AbstractStore implements Store {
         
         path = this.system.getPath(this.root, uri);
 
-        Files.deleteIfExists(path);
+        try {Files.deleteIfExists(path);
+        } finally {
+            
+            this.invalidate(path, true);
+        }
     }    
+    
+    /**
+     *  Entfernt das per URI angegebene Verzeichnis mit dem kompletten Inhalt
+     *  aus dem Dateisystem. Der schreibende Zugriff wird nur einmal f&uuml;r das
+     *  Verzeichnis gepr&uuml;ft, die Dateien werden parallel &uuml;ber den
+     *  Pool vom Store gel&ouml;scht. Fehler einzelner Eintr&auml;ge f&uuml;hren
+     *  nicht zum Abbruch, sondern werden mit dem Pfad als URI
+     *  zur&uuml;ckgegeben.
+     *  @param  uri Pfad vom Verzeichnis als URI
+     *  @return die Fehler einzelner Eintr&auml;ge mit dem Pfad als URI
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public Map<String, IOException> removeFolder(String uri) throws IOException {
+        
+        Batch   batch;
+        Path    path;
+        Remover remover;
+        
+        if (this.closed) throw new IOException("Store already closed");
+    
+        if (!this.canWrite(uri)) throw new IOException("Write access forbidden");
+        
+        path = this.system.getPath(this.root, uri).toAbsolutePath();
+        
+        batch   = new Batch(this.workers, this.workers == null ? 1 : this.workers.getParallelism() *4);
+        remover = new Remover(this, path, uri, batch);
+        
+        try {
+            
+            Files.walkFileTree(path, remover);
+            
+            remover.complete();
+            
+        } finally {
+            
+            batch.cancel();
+            
+            this.invalidate(path, true);
+        }
+        
+        return batch.getErrors();
+    }
 
     /**
      *  Veranlasst das Ausf&uuml;hren der letzten bzw. aktuellen Transaktion und
@@ -1075,6 +1893,12 @@ public abstract class AbstractStore implements Store {
             
             this.shares.remove(this.signature);
             
+            if (this.locks != null) this.locks.dismiss(this.signature);
+            
+            if (this.equals(this.store) && this.workers != null) this.workers.shutdownNow();
+            
+            if (this.equals(this.store) && this.locks != null) this.locks.close();
+            
             if (this.equals(this.store)) this.system.close();
         }
     }    
@@ -1101,6 +1925,8 @@ public abstract class AbstractStore implements Store {
         result.append("  readonly  = ").append(this.readonly).append(string);
         result.append("  blocksize = ").append(this.blocksize).append(string);
         result.append("  closed    = ").append(this.closed).append(string);
+        result.append("  locks     = ").append(this.locks != null ? this.locks.getSize() : 0).append("x").append(string);
+        result.append("  expired   = ").append(this.locks != null ? this.locks.getExpirations() : 0).append("x").append(string);
 
         return result.toString();
     }    
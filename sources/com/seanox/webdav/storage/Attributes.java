@@ -0,0 +1,310 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Attributes stellt eine unver&auml;nderliche Momentaufnahme der Metadaten
+ *  einer Ressource zur Verf&uuml;gung. Die Momentaufnahme wird mit einem
+ *  einzigen Zugriff auf das Dateisystem ermittelt und erspart so die
+ *  wiederholte Abfrage einzelner Attribute, z.B. bei PROPFIND.<br>
+ *  <br>
+ *  Attributes 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+public class Attributes {
+
+    /** Zeitpunkt der Erstellung in Millisekunden */
+    private final long creation;
+
+    /** Zeitpunkt der letzten &Auml;nderung in Millisekunden */
+    private final long modified;
+
+    /** Zeitpunkt der letzten &Auml;nderung in Nanosekunden */
+    private final long nanos;
+
+    /** Hashwert (64 Bit) vom Dateischl&uuml;ssel (z.B. Inode), sonst 0 */
+    private final long key;
+
+    /** Zeitpunkt des letzten Zugriffs in Millisekunden */
+    private final long access;
+
+    /** L&auml;nge der Ressource in Bytes, bei Verzeichnissen -1 */
+    private final long length;
+
+    /** Option wenn es sich um ein Verzeichnis handelt */
+    private final boolean folder;
+
+    /** Option wenn es sich um eine Datei handelt */
+    private final boolean resource;
+
+    /** Wert vom Attribut ReadOnly */
+    private final boolean readonly;
+
+    /** Wert vom Attribut Hidden */
+    private final boolean hidden;
+
+    /** Wert vom Attribut System */
+    private final boolean system;
+
+    /** Wert vom Attribut Archive */
+    private final boolean archive;
+
+    /**
+     *  Konstruktor, richtet die Momentaufnahme auf Basis der &uuml;bergebenen
+     *  Dateiattribute ein. Handelt es sich dabei um DOS-Dateiattribute, werden
+     *  die Attribute ReadOnly, Hidden, System und Archive &uuml;bernommen.
+     *  @param attributes Dateiattribute
+     */
+    Attributes(BasicFileAttributes attributes) {
+
+        DosFileAttributes dos;
+
+        this.creation = Attributes.toMillis(attributes.creationTime(), attributes.lastModifiedTime(), attributes.lastAccessTime());
+        this.modified = Attributes.toMillis(attributes.lastModifiedTime(), attributes.creationTime(), attributes.lastAccessTime());
+        this.access   = Attributes.toMillis(attributes.lastAccessTime(), attributes.lastModifiedTime(), attributes.creationTime());
+        this.nanos    = attributes.lastModifiedTime() == null ? this.modified *1000000L : attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        this.key      = attributes.fileKey() == null ? 0 : Attributes.toHash(attributes.fileKey().toString());
+
+        this.folder   = attributes.isDirectory();
+        this.resource = attributes.isRegularFile();
+        this.length   = this.folder ? -1 : attributes.size();
+
+        dos = attributes instanceof DosFileAttributes ? (DosFileAttributes)attributes : null;
+
+        this.readonly = dos != null && dos.isReadOnly();
+        this.hidden   = dos != null && dos.isHidden();
+        this.system   = dos != null && dos.isSystem();
+        this.archive  = dos != null && dos.isArchive();
+    }
+
+    /**
+     *  Konstruktor, richtet eine Kopie der &uuml;bergebenen Momentaufnahme
+     *  ein. Bei Stores mit ausschliesslich lesendem Zugriff werden die
+     *  Attribute ReadOnly, Hidden, System und Archive gesetzt.
+     *  @param attributes Momentaufnahme
+     *  @param readonly   <code>true</code> bei ausschliesslich lesendem Zugriff
+     */
+    Attributes(Attributes attributes, boolean readonly) {
+
+        this.creation = attributes.creation;
+        this.modified = attributes.modified;
+        this.nanos    = attributes.nanos;
+        this.key      = attributes.key;
+        this.access   = attributes.access;
+        this.length   = attributes.length;
+        this.folder   = attributes.folder;
+        this.resource = attributes.resource;
+
+        this.readonly = readonly || attributes.readonly;
+        this.hidden   = readonly || attributes.hidden;
+        this.system   = readonly || attributes.system;
+        this.archive  = readonly || attributes.archive;
+    }
+
+    /**
+     *  Ermittelt den ersten verf&uuml;gbaren Zeitpunkt in Millisekunden.
+     *  @param  times Zeitpunkte in der Reihenfolge ihrer Priorit&auml;t
+     *  @return der erste verf&uuml;gbare Zeitpunkt in Millisekunden
+     */
+    private static long toMillis(FileTime... times) {
+
+        for (FileTime time : times) {
+
+            if (time != null) return time.toMillis();
+        }
+
+        return 0;
+    }
+
+    /**
+     *  Ermittelt den 64-Bit Hashwert (FNV-1a) zur Zeichenkette. Der Hashwert
+     *  vom Objekt umfasst nur 32 Bit und ist f&uuml;r den Dateischl&uuml;ssel
+     *  im ETag zu kollisionsanf&auml;llig.
+     *  @param  string Zeichenkette
+     *  @return der 64-Bit Hashwert zur Zeichenkette
+     */
+    private static long toHash(String string) {
+
+        long hash;
+        int  loop;
+
+        hash = 0xCBF29CE484222325L;
+
+        for (loop = 0; loop < string.length(); loop++) {
+
+            hash ^= string.charAt(loop);
+            hash *= 0x100000001B3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn es sich um ein Verzeichnis handelt.
+     *  @return <code>true</code> wenn es sich um ein Verzeichnis handelt
+     */
+    public boolean isFolder() {
+
+        return this.folder;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn es sich um eine Datei handelt.
+     *  @return <code>true</code> wenn es sich um eine Datei handelt
+     */
+    public boolean isResource() {
+
+        return this.resource;
+    }
+
+    /**
+     *  R&uuml;ckgabe der L&auml;nge der Ressource in Bytes. Bei Verzeichnissen
+     *  wird <code>-1</code> zur&uuml;ckgegeben.
+     *  @return die L&auml;nge der Ressource in Bytes, sonst <code>-1</code>
+     */
+    public long getLength() {
+
+        return this.length;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Datum der Erstellung.
+     *  @return das Datum der Erstellung
+     */
+    public Date getCreationTime() {
+
+        return new Date(this.creation);
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Datum der letzten &Auml;nderung.
+     *  @return das Datum der letzten &Auml;nderung
+     */
+    public Date getLastModified() {
+
+        return new Date(this.modified);
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Datum des letzten Zugriffs.
+     *  @return das Datum des letzten Zugriffs
+     */
+    public Date getLastAccessTime() {
+
+        return new Date(this.access);
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Wert des Attributs ReadOnly.
+     *  @return der Wert vom Attribut ReadOnly
+     */
+    public boolean isReadOnly() {
+
+        return this.readonly;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Wert des Attributs Hidden.
+     *  @return der Wert vom Attribut Hidden
+     */
+    public boolean isHidden() {
+
+        return this.hidden;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Wert des Attributs System.
+     *  @return der Wert vom Attribut System
+     */
+    public boolean isSystem() {
+
+        return this.system;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Wert des Attributs Archive.
+     *  @return der Wert vom Attribut Archive
+     */
+    public boolean isArchive() {
+
+        return this.archive;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom starken ETag der Ressource, welcher sich hexadezimal
+     *  aus dem Dateischl&uuml;ssel, dem Zeitpunkt der letzten &Auml;nderung in
+     *  Nanosekunden und der L&auml;nge zusammensetzt. Der ETag ist damit
+     *  unabh&auml;ngig von Locale und Zeitzone.
+     *  @return der ETag der Ressource
+     */
+    public String getETag() {
+
+        StringBuilder string;
+
+        string = new StringBuilder(52);
+
+        string.append('"');
+        string.append(Long.toHexString(this.key)).append('-');
+        string.append(Long.toHexString(this.nanos)).append('-');
+        string.append(Long.toHexString(Math.max(0, this.length)));
+        string.append('"');
+
+        return string.toString();
+    }
+
+    /**
+     *  R&uuml;ckgabe der formatierten Information zu den Attributen als String.
+     *  Der Zeilenumbruch erfolgt abh&auml;ngig vom aktuellen Betriebssystem.
+     *  @return die formatierte Information zu den Attributen als String
+     */
+    public String toString() {
+
+        String        string;
+        StringBuilder result;
+
+        //der Zeilenumbruch wird entsprechend dem System ermittelt
+        string = System.getProperty("line.separator", "\r\n");
+
+        //das Paket der Klasse wird ermittelt
+        result = new StringBuilder("[").append(this.getClass().getName()).append("]").append(string);
+
+        result.append("  folder    = ").append(this.folder).append(string);
+        result.append("  length    = ").append(this.length).append(string);
+        result.append("  modified  = ").append(new Date(this.modified)).append(string);
+        result.append("  readonly  = ").append(this.readonly).append(string);
+        result.append("  hidden    = ").append(this.hidden).append(string);
+        result.append("  system    = ").append(this.system).append(string);
+        result.append("  archive   = ").append(this.archive).append(string);
+
+        return result.toString();
+    }
+}
\ No newline at end of file
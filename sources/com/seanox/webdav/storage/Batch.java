@@ -0,0 +1,209 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ *  Batch f&uuml;hrt Aufgaben auf Eintr&auml;gen vom Dateisystem parallel
+ *  &uuml;ber einen Pool aus. Die Anzahl der ausstehenden Aufgaben ist durch ein
+ *  Fenster begrenzt, beim Erreichen wird auf die &auml;lteste Aufgabe
+ *  gewartet. Fehler werden nicht weitergereicht, sondern je Eintrag
+ *  gesammelt. Ohne Pool werden die Aufgaben direkt ausgef&uuml;hrt.<br>
+ *  <br>
+ *  Batch 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Batch {
+
+    /** Pool zur parallelen Ausf&uuml;hrung */
+    private final ExecutorService pool;
+
+    /** maximale Anzahl ausstehender Aufgaben */
+    private final int window;
+
+    /** ausstehende Aufgaben in der Reihenfolge der Einreichung */
+    private final ArrayDeque<Future<IOException>> futures;
+
+    /** Pfade der ausstehenden Aufgaben als URI */
+    private final ArrayDeque<String> uris;
+
+    /** Fehler der Aufgaben mit dem Pfad als URI */
+    private final Map<String, IOException> errors;
+
+    /**
+     *  Konstruktor, richtet den Batch ein.
+     *  @param pool   Pool oder <code>null</code> f&uuml;r die direkte
+     *                Ausf&uuml;hrung
+     *  @param window maximale Anzahl ausstehender Aufgaben
+     */
+    Batch(ExecutorService pool, int window) {
+
+        this.pool    = pool;
+        this.window  = Math.max(1, window);
+        this.futures = new ArrayDeque<Future<IOException>>();
+        this.uris    = new ArrayDeque<String>();
+        this.errors  = new LinkedHashMap<String, IOException>();
+    }
+
+    /**
+     *  Reicht eine Aufgabe f&uuml;r den angegebenen Pfad ein. Ist das Fenster
+     *  ausgesch&ouml;pft, wird vorher auf die &auml;lteste Aufgabe gewartet.
+     *  @param  uri  Pfad vom Eintrag als URI
+     *  @param  task Aufgabe
+     *  @throws IOException beim Abbruch vom Warten
+     */
+    void submit(String uri, Callable<Void> task) throws IOException {
+
+        if (this.pool == null) {
+
+            this.fail(uri, new Task(task).call());
+
+            return;
+        }
+
+        while (this.futures.size() >= this.window) this.complete();
+
+        this.futures.add(this.pool.submit(new Task(task)));
+        this.uris.add(uri);
+    }
+
+    /**
+     *  Wartet auf die &auml;lteste ausstehende Aufgabe.
+     *  @throws IOException beim Abbruch vom Warten
+     */
+    private void complete() throws IOException {
+
+        Future<IOException> future;
+        String              uri;
+
+        future = this.futures.poll();
+        uri    = this.uris.poll();
+
+        try {this.fail(uri, future.get());
+        } catch (InterruptedException exception) {
+
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException();
+
+        } catch (ExecutionException exception) {
+
+            this.fail(uri, new IOException(exception.getCause()));
+        }
+    }
+
+    /**
+     *  Wartet auf alle ausstehenden Aufgaben.
+     *  @throws IOException beim Abbruch vom Warten
+     */
+    void await() throws IOException {
+
+        while (!this.futures.isEmpty()) this.complete();
+    }
+
+    /**
+     *  Bricht alle ausstehenden Aufgaben ab.
+     */
+    void cancel() {
+
+        for (Future<IOException> future : this.futures) future.cancel(false);
+
+        this.futures.clear();
+        this.uris.clear();
+    }
+
+    /**
+     *  Vermerkt einen Fehler f&uuml;r den angegebenen Pfad.
+     *  @param uri       Pfad vom Eintrag als URI
+     *  @param exception Fehler oder <code>null</code>
+     */
+    void fail(String uri, IOException exception) {
+
+        if (exception != null) this.errors.put(uri, exception);
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn f&uuml;r den Pfad ein Fehler
+     *  vermerkt wurde.
+     *  @param  uri Pfad vom Eintrag als URI
+     *  @return <code>true</code>, wenn f&uuml;r den Pfad ein Fehler vermerkt
+     *          wurde
+     */
+    boolean isFailed(String uri) {
+
+        return this.errors.containsKey(uri);
+    }
+
+    /**
+     *  R&uuml;ckgabe der Fehler der Aufgaben mit dem Pfad als URI.
+     *  @return die Fehler der Aufgaben mit dem Pfad als URI
+     */
+    Map<String, IOException> getErrors() {
+
+        return this.errors;
+    }
+
+    /** Aufgabe, welche Fehler als Ergebnis zur&uuml;ckgibt */
+    private static class Task implements Callable<IOException> {
+
+        /** auszuf&uuml;hrende Aufgabe */
+        private final Callable<Void> task;
+
+        /**
+         *  Konstruktor, richtet die Aufgabe ein.
+         *  @param task auszuf&uuml;hrende Aufgabe
+         */
+        private Task(Callable<Void> task) {
+
+            this.task = task;
+        }
+
+        /**
+         *  F&uuml;hrt die Aufgabe aus.
+         *  @return der aufgetretene Fehler, sonst <code>null</code>
+         */
+        public IOException call() {
+
+            try {this.task.call();
+            } catch (IOException exception) {
+                return exception;
+            } catch (Exception exception) {
+                return new IOException(exception);
+            }
+
+            return null;
+        }
+    }
+}
\ No newline at end of file
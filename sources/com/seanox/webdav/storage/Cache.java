@@ -0,0 +1,354 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Cache stellt einen begrenzten Zwischenspeicher f&uuml;r die Metadaten der
+ *  Ressourcen eines Stores zur Verf&uuml;gung. Der Cache wird von allen Shares
+ *  eines Stores gemeinsam verwendet. Die Eintr&auml;ge werden auf Segmente
+ *  mit eigener Synchronisation verteilt, je Segment nach dem Prinzip LRU
+ *  verdr&auml;ngt und verfallen nach der angegebenen Lebensdauer. Auch nicht
+ *  existierende Ressourcen werden als Eintrag ohne Attribute gehalten.
+ *  &Auml;nderungen durch den Store selbst m&uuml;ssen die betroffenen
+ *  Eintr&auml;ge &uuml;ber {@link #invalidate(String, boolean)} verwerfen.
+ *  Dazu wird je Pfad die Generation der Invalidierung vermerkt, Eintr&auml;ge
+ *  einer &auml;lteren Generation vom Pfad oder einem &uuml;bergeordneten
+ *  Verzeichnis gelten als veraltet und werden erst beim Zugriff verworfen.
+ *  Die Invalidierung von Verzeichnissen erfordert so keinen Durchlauf aller
+ *  Eintr&auml;ge.<br>
+ *  <br>
+ *  Cache 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Cache {
+
+    /** Segmente mit den Eintr&auml;gen (Pfad | Eintrag) in LRU-Reihenfolge */
+    private final List<Map<String, Entry>> segments;
+
+    /** Generationen der Invalidierung einzelner Pfade */
+    private final ConcurrentMap<String, Long> paths;
+
+    /** Generationen der Invalidierung von Verzeichnissen mit Inhalt */
+    private final ConcurrentMap<String, Long> trees;
+
+    /** Z&auml;hler der Generationen */
+    private final AtomicLong clock;
+
+    /** max. Anzahl von Eintr&auml;gen */
+    private final int size;
+
+    /** Lebensdauer der Eintr&auml;ge in Millisekunden */
+    private final long lifetime;
+
+    /** Trennzeichen der Pfade im verwendeten FileSystem */
+    private final String separator;
+
+    /** Generation, vor der alle Eintr&auml;ge als veraltet gelten */
+    private volatile long floor;
+
+    /** max. Anzahl der Segmente */
+    private static final int SEGMENTS = 16;
+
+    /** min. Anzahl vermerkter Generationen vor der Bereinigung */
+    private static final int MARKS = 4096;
+
+    /**
+     *  Konstruktor, richtet den Cache ein. Mit einer Gr&ouml;sse kleiner als
+     *  1 ist der Cache deaktiviert.
+     *  @param size      max. Anzahl von Eintr&auml;gen
+     *  @param lifetime  Lebensdauer der Eintr&auml;ge in Millisekunden
+     *  @param separator Trennzeichen der Pfade im verwendeten FileSystem
+     */
+    Cache(int size, long lifetime, String separator) {
+
+        final int capacity;
+
+        int       count;
+        int       loop;
+
+        this.size      = size;
+        this.lifetime  = lifetime;
+        this.separator = separator;
+        this.paths     = new ConcurrentHashMap<String, Long>();
+        this.trees     = new ConcurrentHashMap<String, Long>();
+        this.clock     = new AtomicLong();
+
+        count    = Math.max(1, Math.min(Cache.SEGMENTS, size));
+        capacity = Math.max(1, size / count);
+
+        this.segments = new ArrayList<Map<String, Entry>>(count);
+
+        for (loop = 0; loop < count; loop++) {
+
+            this.segments.add(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 3716508046362155183L;
+
+                protected boolean removeEldestEntry(Map.Entry<String, Cache.Entry> eldest) {
+
+                    return this.size() > capacity;
+                }
+            });
+        }
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn der Cache aktiv ist.
+     *  @return <code>true</code>, wenn der Cache aktiv ist
+     */
+    boolean isEnabled() {
+
+        return this.size > 0 && this.lifetime > 0;
+    }
+
+    /**
+     *  R&uuml;ckgabe der aktuellen Generation. Diese wird vor dem Auslesen
+     *  der Attribute ermittelt und beim Ablegen verwendet, um zwischenzeitlich
+     *  invalidierte Daten zu erkennen.
+     *  @return die aktuelle Generation
+     */
+    long getGeneration() {
+
+        return this.clock.get();
+    }
+
+    /**
+     *  Ermittelt das Segment zum angegebenen Pfad.
+     *  @param  path Pfad
+     *  @return das Segment zum Pfad
+     */
+    private Map<String, Entry> locate(String path) {
+
+        return this.segments.get((path.hashCode() & 0x7FFFFFFF) % this.segments.size());
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn die Generation f&uuml;r den
+     *  angegebenen Pfad noch aktuell ist, also weder der Pfad selbst noch
+     *  eines der &uuml;bergeordneten Verzeichnisse sp&auml;ter invalidiert
+     *  wurde.
+     *  @param  path       Pfad
+     *  @param  generation Generation
+     *  @return <code>true</code>, wenn die Generation noch aktuell ist
+     */
+    private boolean isCurrent(String path, long generation) {
+
+        Long mark;
+
+        int  cursor;
+        int  first;
+
+        if (generation < this.floor) return false;
+
+        mark = this.paths.get(path);
+
+        if (mark != null && mark.longValue() > generation) return false;
+
+        if (this.trees.isEmpty()) return true;
+
+        mark = this.trees.get(path);
+
+        if (mark != null && mark.longValue() > generation) return false;
+
+        first = path.indexOf(this.separator);
+
+        //das erste Trennzeichen gehoert zum Wurzelverzeichnis
+        for (cursor = first; cursor >= 0; cursor = path.indexOf(this.separator, cursor +1)) {
+
+            mark = this.trees.get(path.substring(0, cursor == first ? cursor +this.separator.length() : cursor));
+
+            if (mark != null && mark.longValue() > generation) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     *  Ermittelt den g&uuml;ltigen Eintrag zum angegebenen Pfad. Kann kein
+     *  g&uuml;ltiger Eintrag ermittelt werden, wird <code>null</code>
+     *  zur&uuml;ckgegeben.
+     *  @param  path Pfad
+     *  @return der g&uuml;ltige Eintrag, sonst <code>null</code>
+     */
+    Entry get(String path) {
+
+        Map<String, Entry> segment;
+        Entry              entry;
+
+        segment = this.locate(path);
+
+        synchronized (segment) {
+            entry = segment.get(path);
+        }
+
+        if (entry == null) return null;
+
+        if (entry.expiration >= System.currentTimeMillis() && this.isCurrent(path, entry.generation)) return entry;
+
+        synchronized (segment) {
+
+            if (segment.get(path) == entry) segment.remove(path);
+        }
+
+        return null;
+    }
+
+    /**
+     *  Legt die Attribute zum angegebenen Pfad ab. Wurde der Pfad seit der
+     *  angegebenen Generation invalidiert, werden die Attribute verworfen, da
+     *  diese bereits veraltet sein k&ouml;nnen.
+     *  @param path       Pfad
+     *  @param attributes Attribute, <code>null</code> bei nicht existierender
+     *                    Ressource
+     *  @param generation Generation beim Auslesen der Attribute
+     */
+    void put(String path, Attributes attributes, long generation) {
+
+        Map<String, Entry> segment;
+
+        if (!this.isCurrent(path, generation)) return;
+
+        segment = this.locate(path);
+
+        synchronized (segment) {
+            segment.put(path, new Entry(attributes, System.currentTimeMillis() +this.lifetime, generation));
+        }
+    }
+
+    /**
+     *  Vermerkt die Generation zum Pfad, sofern diese neuer als die bereits
+     *  vermerkte ist.
+     *  @param marks      Generationen der Pfade
+     *  @param path       Pfad
+     *  @param generation Generation
+     */
+    private static void mark(ConcurrentMap<String, Long> marks, String path, long generation) {
+
+        Long current;
+
+        while ((current = marks.putIfAbsent(path, Long.valueOf(generation))) != null
+                && current.longValue() < generation && !marks.replace(path, current, Long.valueOf(generation))) continue;
+    }
+
+    /**
+     *  Verwirft den Eintrag zum angegebenen Pfad und optional die Eintr&auml;ge
+     *  aller darunter liegenden Pfade. Die darunter liegenden Eintr&auml;ge
+     *  werden &uuml;ber die Generation vom Verzeichnis erst beim Zugriff
+     *  verworfen.
+     *  @param path    Pfad
+     *  @param subtree <code>true</code> verwirft auch die Eintr&auml;ge aller
+     *                 darunter liegenden Pfade
+     */
+    void invalidate(String path, boolean subtree) {
+
+        Map<String, Entry> segment;
+
+        long               generation;
+
+        generation = this.clock.incrementAndGet();
+
+        Cache.mark(this.paths, path, generation);
+
+        if (subtree) Cache.mark(this.trees, path, generation);
+
+        segment = this.locate(path);
+
+        synchronized (segment) {
+            segment.remove(path);
+        }
+
+        if (this.paths.size() +this.trees.size() > Math.max(this.size, Cache.MARKS)) this.purge();
+    }
+
+    /**
+     *  Verwirft alle Eintr&auml;ge und die bis dahin vermerkten Generationen,
+     *  womit die Anzahl der vermerkten Generationen begrenzt bleibt. Danach
+     *  vermerkte Generationen bleiben erhalten.
+     */
+    private void purge() {
+
+        long floor;
+
+        floor = this.clock.incrementAndGet();
+
+        this.floor = floor;
+
+        for (Map<String, Entry> segment : this.segments) {
+
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+
+        for (Map.Entry<String, Long> entry : this.paths.entrySet()) {
+
+            if (entry.getValue().longValue() < floor) this.paths.remove(entry.getKey(), entry.getValue());
+        }
+
+        for (Map.Entry<String, Long> entry : this.trees.entrySet()) {
+
+            if (entry.getValue().longValue() < floor) this.trees.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     *  Entry stellt einen Eintrag im Cache mit den Attributen einer Ressource,
+     *  dem Zeitpunkt des Verfalls und der Generation beim Auslesen zur
+     *  Verf&uuml;gung.
+     */
+    static class Entry {
+
+        /** Attribute der Ressource, <code>null</code> wenn nicht existent */
+        final Attributes attributes;
+
+        /** Zeitpunkt des Verfalls in Millisekunden */
+        final long expiration;
+
+        /** Generation beim Auslesen der Attribute */
+        final long generation;
+
+        /**
+         *  Konstruktor, richtet den Eintrag ein.
+         *  @param attributes Attribute der Ressource
+         *  @param expiration Zeitpunkt des Verfalls in Millisekunden
+         *  @param generation Generation beim Auslesen der Attribute
+         */
+        Entry(Attributes attributes, long expiration, long generation) {
+
+            this.attributes = attributes;
+            this.expiration = expiration;
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
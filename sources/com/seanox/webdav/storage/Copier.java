@@ -0,0 +1,243 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ *  Copier kopiert ein Verzeichnis mit dem kompletten Inhalt. Die
+ *  Verzeichnisse werden beim Durchlaufen angelegt, die Dateien parallel
+ *  &uuml;ber den Batch mit ihren Attributen kopiert. Die Zeitpunkte der
+ *  Verzeichnisse werden erst nach dem Kopieren aller Dateien gesetzt, da diese
+ *  sonst durch das Anlegen der Dateien ver&auml;ndert werden. Vom Store selbst
+ *  verwendete Eintr&auml;ge werden ausgelassen. Fehler einzelner
+ *  Eintr&auml;ge werden mit dem Zielpfad im Batch vermerkt.<br>
+ *  <br>
+ *  Copier 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Copier extends SimpleFileVisitor<Path> {
+
+    /** Store der Quelle */
+    private final AbstractStore store;
+
+    /** Quellverzeichnis */
+    private final Path source;
+
+    /** Quellverzeichnis als URI */
+    private final String uri;
+
+    /** Zielverzeichnis */
+    private final Path target;
+
+    /** Zielverzeichnis als URI */
+    private final String destination;
+
+    /** Option zum Kopieren vom Inhalt */
+    private final boolean recursive;
+
+    /** Batch zur Ausf&uuml;hrung und Fehlererfassung */
+    private final Batch batch;
+
+    /** angelegte Verzeichnisse mit den Attributen der Quelle */
+    private final List<Object[]> folders;
+
+    /**
+     *  Konstruktor, richtet den Copier ein.
+     *  @param store       Store der Quelle
+     *  @param source      Quellverzeichnis
+     *  @param uri         Quellverzeichnis als URI
+     *  @param target      Zielverzeichnis
+     *  @param destination Zielverzeichnis als URI
+     *  @param recursive   Option zum Kopieren vom Inhalt
+     *  @param batch       Batch zur Ausf&uuml;hrung und Fehlererfassung
+     */
+    Copier(AbstractStore store, Path source, String uri, Path target, String destination, boolean recursive, Batch batch) {
+
+        this.store       = store;
+        this.source      = source;
+        this.uri         = uri.endsWith("/") ? uri.substring(0, uri.length() -1) : uri;
+        this.target      = target;
+        this.destination = destination.endsWith("/") ? destination.substring(0, destination.length() -1) : destination;
+        this.recursive   = recursive;
+        this.batch       = batch;
+        this.folders     = new ArrayList<Object[]>();
+    }
+
+    /**
+     *  Ermittelt den Zielpfad als URI zum angegebenen Eintrag der Quelle.
+     *  @param  path Eintrag der Quelle
+     *  @return der Zielpfad als URI
+     */
+    private String locate(Path path) {
+
+        return this.locate(this.destination, path);
+    }
+
+    /**
+     *  Ermittelt den Pfad als URI zum angegebenen Eintrag der Quelle
+     *  ausgehend vom angegebenen Verzeichnis.
+     *  @param  base Verzeichnis als URI
+     *  @param  path Eintrag der Quelle
+     *  @return der Pfad als URI
+     */
+    private String locate(String base, Path path) {
+
+        StringBuilder uri;
+
+        uri = new StringBuilder(base);
+
+        for (Path name : this.source.relativize(path)) uri.append("/").append(name.toString());
+
+        return uri.toString();
+    }
+
+    /**
+     *  Legt das Verzeichnis im Ziel an. Kann das Zielverzeichnis selbst nicht
+     *  angelegt werden, wird das Kopieren abgebrochen.
+     *  @param  folder     Verzeichnis der Quelle
+     *  @param  attributes Attribute vom Verzeichnis
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     *  @throws IOException wenn das Zielverzeichnis nicht angelegt werden kann
+     */
+    public FileVisitResult preVisitDirectory(Path folder, BasicFileAttributes attributes) throws IOException {
+
+        Path path;
+
+        //vom Store verwendete Verzeichnisse werden ausgelassen
+        if (!folder.equals(this.source) && this.store.isReserved(this.locate(this.uri, folder))) return FileVisitResult.SKIP_SUBTREE;
+
+        path = this.target.resolve(this.source.relativize(folder).toString());
+
+        try {Files.createDirectory(path);
+        } catch (FileAlreadyExistsException exception) {
+
+            if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+
+                if (folder.equals(this.source)) throw exception;
+
+                this.batch.fail(this.locate(folder), exception);
+
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+        } catch (IOException exception) {
+
+            if (folder.equals(this.source)) throw exception;
+
+            this.batch.fail(this.locate(folder), exception);
+
+            return FileVisitResult.SKIP_SUBTREE;
+        }
+
+        this.folders.add(new Object[] {path, attributes});
+
+        if (!this.recursive) return FileVisitResult.SKIP_SUBTREE;
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Kopiert die Datei &uuml;ber den Batch mit ihren Attributen.
+     *  @param  file       Datei der Quelle
+     *  @param  attributes Attribute der Datei
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     *  @throws IOException beim Abbruch vom Warten auf den Batch
+     */
+    public FileVisitResult visitFile(final Path file, BasicFileAttributes attributes) throws IOException {
+
+        final Path path;
+
+        this.store.touch();
+
+        //vom Store verwendete Dateien werden ausgelassen
+        if (this.store.isReserved(this.locate(this.uri, file))) return FileVisitResult.CONTINUE;
+
+        path = this.target.resolve(this.source.relativize(file).toString());
+
+        this.batch.submit(this.locate(file), new Callable<Void>() {
+            public Void call() throws IOException {
+                Files.copy(file, path, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+                return null;
+            }
+        });
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Vermerkt den Fehler beim Zugriff auf einen Eintrag der Quelle.
+     *  @param  file      Eintrag der Quelle
+     *  @param  exception aufgetretener Fehler
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     */
+    public FileVisitResult visitFileFailed(Path file, IOException exception) {
+
+        this.batch.fail(this.locate(file), exception);
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Wartet auf alle Kopien und setzt danach die Zeitpunkte der angelegten
+     *  Verzeichnisse entsprechend der Quelle.
+     *  @throws IOException beim Abbruch vom Warten auf den Batch
+     */
+    void complete() throws IOException {
+
+        BasicFileAttributes attributes;
+        Path                path;
+
+        int                 loop;
+
+        this.batch.await();
+
+        for (loop = this.folders.size() -1; loop >= 0; loop--) {
+
+            path       = (Path)this.folders.get(loop)[0];
+            attributes = (BasicFileAttributes)this.folders.get(loop)[1];
+
+            try {Files.getFileAttributeView(path, BasicFileAttributeView.class).setTimes(attributes.lastModifiedTime(),
+                    attributes.lastAccessTime(), attributes.creationTime());
+            } catch (Exception exception) {
+
+                //keine Fehlerbehandlung vorgesehen
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ *  Cursor stellt die Implementierung von {@link Directory} f&uuml;r den
+ *  AbstractStore zur Verf&uuml;gung. Die Eintr&auml;ge werden direkt aus dem
+ *  DirectoryStream gelesen, die Attribute eines Eintrags werden erst bei
+ *  Bedarf und dann nur einmal &uuml;ber den Store zum gelieferten Pfad
+ *  ermittelt.<br>
+ *  <br>
+ *  Cursor 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Cursor implements Directory {
+
+    /** Store der Eintr&auml;ge */
+    private final AbstractStore store;
+
+    /** Datenstrom vom Verzeichnis */
+    private final DirectoryStream<Path> stream;
+
+    /** Iterator &uuml;ber die Eintr&auml;ge vom Verzeichnis */
+    private final Iterator<Path> iterator;
+
+    /** Pfad vom Verzeichnis als URI mit endendem Slash */
+    private final String uri;
+
+    /** Pfad vom aktuellen Eintrag */
+    private Path path;
+
+    /** Name vom aktuellen Eintrag */
+    private String name;
+
+    /** Attribute vom aktuellen Eintrag */
+    private Attributes attributes;
+
+    /** Option wenn die Attribute vom aktuellen Eintrag ermittelt wurden */
+    private boolean resolved;
+
+    /**
+     *  Konstruktor, richtet den Cursor ein.
+     *  @param  store  Store
+     *  @param  uri    Pfad vom Verzeichnis als URI
+     *  @param  stream Datenstrom vom Verzeichnis
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    Cursor(AbstractStore store, String uri, DirectoryStream<Path> stream) throws IOException {
+
+        this.store    = store;
+        this.stream   = stream;
+        this.iterator = stream.iterator();
+        this.uri      = uri.endsWith("/") ? uri : uri.concat("/");
+    }
+
+    /**
+     *  Setzt den Cursor auf den n&auml;chsten Eintrag im Verzeichnis.
+     *  @return <code>true</code>, wenn ein weiterer Eintrag existiert
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public boolean next() throws IOException {
+
+        this.path       = null;
+        this.name       = null;
+        this.attributes = null;
+        this.resolved   = false;
+
+        while (this.iterator.hasNext()) {
+
+            this.path = this.iterator.next();
+            this.name = this.path.getFileName().toString();
+
+            //vom Store verwendete Eintraege werden ausgelassen
+            if (!this.store.isReserved(this.uri.concat(this.name))) return true;
+        }
+
+        this.path = null;
+        this.name = null;
+
+        return false;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Namen des aktuellen Eintrags.
+     *  @return der Name vom aktuellen Eintrag
+     */
+    public String getName() {
+
+        return this.name;
+    }
+
+    /**
+     *  R&uuml;ckgabe der Attribute vom aktuellen Eintrag. Existiert dieser
+     *  nicht mehr, wird <code>null</code> zur&uuml;ckgegeben.
+     *  @return die Attribute vom aktuellen Eintrag, sonst <code>null</code>
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public Attributes getAttributes() throws IOException {
+
+        if (this.name == null) return null;
+
+        if (!this.resolved) this.attributes = this.store.getAttributes(this.path);
+
+        this.resolved = true;
+
+        return this.attributes;
+    }
+
+    /**
+     *  Schliesst den Cursor und den Datenstrom vom Verzeichnis.
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public void close() throws IOException {
+
+        this.stream.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ *  Cursor over the entries of a folder. The entries are read successively
+ *  while iterating, so the memory usage is independent of the size of the
+ *  folder. The attributes of the current entry are read once on demand and
+ *  reuse the snapshot of the store. The cursor must be closed after use, also
+ *  if it was not read completely.<br>
+ *  <br>
+ *  Directory 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+public interface Directory extends Closeable {
+
+    /**
+     *  Moves the cursor to the next entry of the folder.
+     *  @return <code>true</code> if a next entry exists, otherwise
+     *          <code>false</code>
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public boolean next() throws IOException;
+
+    /**
+     *  Gets the name of the current entry.
+     *  @return name of the current entry
+     */
+    public String getName();
+
+    /**
+     *  Gets the snapshot of the attributes of the current entry.
+     *  @return snapshot of the attributes, <code>null</code> if the entry no
+     *          longer exists
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Attributes getAttributes() throws IOException;
+
+    /**
+     *  Closes the cursor and releases the resources of the store.
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public void close() throws IOException;
+}
\ No newline at end of file
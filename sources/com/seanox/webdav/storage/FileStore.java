@@ -21,10 +21,16 @@
  */
 package com.seanox.webdav.storage;
 
+import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.Principal;
+import java.util.Collections;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  *  FileStore stellt einem Store f&uuml;r das lokale Dateisystem bereit.
@@ -76,6 +82,120 @@ import java.util.Map;
  *        angegeben, wird der Wert aus der Server-Konfiguration verwendet
  *      </td>
  *    </tr>    
+ *    <tr>
+ *      <td><i>cache</i></td>
+ *      <td>
+ *        optionale Angabe der max. Anzahl von Eintr&auml;gen im gemeinsamen
+ *        Cache der Metadaten (Existenz, Typ, Gr&ouml;sse, Zeitpunkte und
+ *        Attribute), Standard, wenn nicht angegeben ist <code>0</code> und
+ *        der Cache ist deaktiviert
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>cachetime</i></td>
+ *      <td>
+ *        optionale Angabe der Lebensdauer von Eintr&auml;gen im Cache der
+ *        Metadaten in Millisekunden, Standard, wenn nicht angegeben ist
+ *        <code>1000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>threads</i></td>
+ *      <td>
+ *        optionale Angabe der Anzahl paralleler Zugriffe beim Ermitteln der
+ *        Attribute von Verzeichniseintr&auml;gen (PROPFIND) und beim Kopieren
+ *        und L&ouml;schen von Verzeichnissen (COPY, DELETE), Standard, wenn
+ *        nicht angegeben ist <code>0</code> (seriell)
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>infinity</i></td>
+ *      <td>
+ *        option f&uuml;r PROPFIND mit unbegrenzter Tiefe (Depth: infinity),
+ *        bei <code>off</code> werden solche Anfragen mit
+ *        <code>FORBIDDEN</code> (403) und <code>propfind-finite-depth</code>
+ *        abgelehnt, Standard, wenn nicht angegeben ist <code>on</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>entries</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Anzahl von Eintr&auml;gen einer
+ *        PROPFIND-Antwort, bei &Uuml;berschreitung wird die Antwort mit dem
+ *        Status <code>INSUFFICIENT_STORAGE</code> (507) f&uuml;r die
+ *        angefragte Ressource abgeschlossen, <code>0</code> ohne Begrenzung,
+ *        Standard, wenn nicht angegeben ist <code>100000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>duration</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Dauer einer PROPFIND-Antwort in
+ *        Millisekunden, bei &Uuml;berschreitung wird die Antwort mit dem
+ *        Status <code>INSUFFICIENT_STORAGE</code> (507) f&uuml;r die
+ *        angefragte Ressource abgeschlossen, <code>0</code> ohne Begrenzung,
+ *        Standard, wenn nicht angegeben ist <code>60000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>cachecontrol</i></td>
+ *      <td>
+ *        optionale Angabe vom Header <code>Cache-Control</code>, welcher bei
+ *        GET und HEAD f&uuml;r Ressourcen gesendet wird (z.B. <code>no-
+ *        cache</code> f&uuml;r die Revalidierung per ETag), Standard, wenn
+ *        nicht angegeben wird kein Header gesendet
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>keepalive</i></td>
+ *      <td>
+ *        option f&uuml;r bestehen bleibende Verbindungen (HTTP/1.1),
+ *        Antworten mit vorab unbekannter L&auml;nge (Multistatus) werden dann
+ *        per <code>Transfer-Encoding: chunked</code> &uuml;bertragen,
+ *        Standard, wenn nicht angegeben ist <code>off</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>durability</i></td>
+ *      <td>
+ *        optionale Angabe der Dauerhaftigkeit beim Speichern von Ressourcen
+ *        (PUT): <code>none</code> ohne Synchronisation, <code>data</code>
+ *        synchronisiert den Inhalt (fdatasync), <code>full</code>
+ *        synchronisiert Datei und Verzeichnis (fsync), Standard, wenn nicht
+ *        angegeben ist <code>none</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>reclaim</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Anzahl je Sekunde im Hintergrund
+ *        gel&ouml;schter Eintr&auml;ge, ist diese gr&ouml;sser
+ *        <code>0</code>, werden zu l&ouml;schende Verzeichnisse (DELETE)
+ *        sofort in den versteckten Bereich <code>.reclaim</code> im
+ *        Wurzelverzeichnis verschoben und deren Inhalt im Hintergrund
+ *        gel&ouml;scht, Standard, wenn nicht angegeben ist <code>0</code>
+ *        (direktes L&ouml;schen)
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>expiration</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Lebensdauer von Sperreintr&auml;gen
+ *        in Millisekunden, danach werden Sperren nicht ordnungsgem&auml;ss
+ *        beendeter Transaktionen automatisch aufgehoben, Standard, wenn nicht
+ *        angegeben ist <code>0</code> (unbegrenzt)
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>journal</i></td>
+ *      <td>
+ *        optionale Angabe vom Pfad f&uuml;r das Journal der dauerhaften
+ *        Sperren (LOCK), womit diese nach einem Neustart wiederhergestellt
+ *        werden, verwendet werden die Dateien mit den Endungen
+ *        <code>.0</code> und <code>.1</code>, ohne Angabe werden die Sperren
+ *        nur im Speicher gehalten
+ *      </td>
+ *    </tr>
  *  </table>
  *  <br>
  *  Beispiel:
@@ -100,6 +220,18 @@ import java.util.Map;
  */
 public class FileStore extends AbstractStore {
 
+    /** gemeinsamer Reclaimer zum L&ouml;schen im Hintergrund (global) */
+    private volatile Reclaimer reclaimer;
+    
+    /** Bereich f&uuml;r zu l&ouml;schende Verzeichnisse */
+    private volatile Path reclaim;
+
+    /** Konstante f&uuml;r den Parameter reclaim */
+    private static final String PARAMETER_RECLAIM = "RECLAIM";
+    
+    /** Name vom Bereich f&uuml;r zu l&ouml;schende Verzeichnisse */
+    private static final String RECLAIM_AREA = ".reclaim";
+
     /**
      *  Erstellt eine Instanz vom zu verwendenden FileSystem auf Basis der
      *  &uuml;bergeben Berechtigungn und Parameter.
@@ -112,4 +244,129 @@ public class FileStore extends AbstractStore {
 
         return FileSystems.getDefault();
     }
+
+    /**
+     *  Erstellt eine Kopie der Instanz f&uuml;r Transaktionen auf Basis der
+     *  &uuml;bergeben Berechtigung und Parameter. Ist das L&ouml;schen im
+     *  Hintergrund aktiv, wird der Bereich f&uuml;r zu l&ouml;schende
+     *  Verzeichnisse beim Reclaimer bekannt gemacht, womit auch verbliebene
+     *  Eintr&auml;ge aus vorherigen Laufzeiten bereinigt werden.
+     *  @param  principal  Principal
+     *  @param  parameters Parameter
+     *  @return eine eigene Instanz f&uuml;r Transaktionen
+     *  @throws Exception bei fehlerhafter Einrichtung des Stores
+     */    
+    public Store share(Principal principal, Map<String, String> parameters) throws Exception {
+        
+        FileStore store;
+        
+        long      rate;
+        
+        rate = AbstractStore.getParameter(parameters, FileStore.PARAMETER_RECLAIM, 0);
+        
+        synchronized (this) {
+            
+            if (this.reclaimer == null && rate > 0) {
+                
+                this.reclaimer = new Reclaimer(rate);
+                this.reclaimer.start();
+            }
+        }
+        
+        store = (FileStore)super.share(principal, parameters);
+        
+        store.reclaimer = this.reclaimer;
+        store.reclaim   = null;
+        
+        if (rate <= 0 || store.reclaimer == null) return store;
+        
+        store.reclaim = store.system.getPath(store.root, FileStore.RECLAIM_AREA);
+        
+        store.reclaimer.register(store.reclaim);
+        
+        return store;
+    }
+    
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn der per URI angegebene Pfad im
+     *  Bereich f&uuml;r zu l&ouml;schende Verzeichnisse oder im Bereich
+     *  f&uuml;r tempor&auml;re Dateien beim Speichern liegt.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return <code>true</code>, wenn der Pfad vom Store verwendet wird
+     */
+    protected boolean isReserved(String uri) {
+        
+        int length;
+        
+        if (super.isReserved(uri)) return true;
+        
+        if (this.reclaim == null || uri == null) return false;
+        
+        length = FileStore.RECLAIM_AREA.length() +1;
+
+        if (!uri.startsWith("/".concat(FileStore.RECLAIM_AREA))) return false;
+        
+        return uri.length() == length || uri.charAt(length) == '/';
+    }
+
+    /**
+     *  Entfernt das per URI angegebene Verzeichnis mit dem kompletten Inhalt
+     *  aus dem Dateisystem. Ist das L&ouml;schen im Hintergrund aktiv, wird
+     *  das Verzeichnis atomar in den Bereich f&uuml;r zu l&ouml;schende
+     *  Verzeichnisse verschoben und der Inhalt vom Reclaimer gel&ouml;scht.
+     *  Kann das Verzeichnis nicht verschoben werden, wird es direkt
+     *  gel&ouml;scht.
+     *  @param  uri Pfad vom Verzeichnis als URI
+     *  @return die Fehler einzelner Eintr&auml;ge mit dem Pfad als URI
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Dateisystem
+     */
+    public Map<String, IOException> removeFolder(String uri) throws IOException {
+        
+        Path path;
+        
+        if (this.closed) throw new IOException("Store already closed");
+        
+        if (this.reclaim == null) return super.removeFolder(uri);
+        
+        if (!this.canWrite(uri)) throw new IOException("Write access forbidden");
+        
+        path = this.system.getPath(this.root, uri);
+        
+        //das Wurzelverzeichnis wird direkt geloescht, da dieses den Bereich
+        //selbst enthaelt
+        if (path.equals(this.system.getPath(this.root))) return super.removeFolder(uri);
+        
+        try {
+            
+            Files.createDirectories(this.reclaim);
+            
+            Files.move(path, this.reclaim.resolve(UUID.randomUUID().toString()), StandardCopyOption.ATOMIC_MOVE);
+            
+        } catch (IOException exception) {
+            
+            return super.removeFolder(uri);
+
+        } finally {
+            
+            this.invalidate(path, true);
+        }
+        
+        this.reclaimer.schedule(this.reclaim);
+        
+        return Collections.emptyMap();
+    }
+
+    /**
+     *  Schliesst den Store und bereinigt ggf. durch diese Instanz vom Store
+     *  gesetzte Sperren.
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Store
+     */    
+    public synchronized void close() throws IOException {
+        
+        try {super.close();
+        } finally {
+            
+            if (this.equals(this.store) && this.reclaimer != null) this.reclaimer.close();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  Reclaimer l&ouml;scht im Hintergrund die Inhalte der Bereiche, in welche
+ *  zu l&ouml;schende Verzeichnisse vom Store verschoben wurden. Damit das
+ *  L&ouml;schen die Zugriffe vom Store nicht verdr&auml;ngt, ist die Anzahl
+ *  der gel&ouml;schten Eintr&auml;ge je Sekunde begrenzt. Ein Bereich wird
+ *  beim ersten Bekanntmachen vollst&auml;ndig bereinigt, womit auch
+ *  Eintr&auml;ge aus vorherigen Laufzeiten gel&ouml;scht werden. Fehler beim
+ *  L&ouml;schen werden ignoriert, die betroffenen Eintr&auml;ge verbleiben bis
+ *  zur n&auml;chsten Bereinigung vom Bereich.<br>
+ *  <br>
+ *  Reclaimer 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Reclaimer extends Thread {
+
+    /** maximale Anzahl gel&ouml;schter Eintr&auml;ge je Sekunde */
+    private final long rate;
+
+    /** bekannte Bereiche */
+    private final Set<Path> areas;
+
+    /** zu bereinigende Bereiche */
+    private final Set<Path> pending;
+
+    /** Anzahl der im aktuellen Zeitfenster gel&ouml;schten Eintr&auml;ge */
+    private long count;
+
+    /** Beginn vom aktuellen Zeitfenster in Millisekunden */
+    private long window;
+
+    /**
+     *  Konstruktor, richtet den Reclaimer als Daemon ein.
+     *  @param rate maximale Anzahl gel&ouml;schter Eintr&auml;ge je Sekunde
+     */
+    Reclaimer(long rate) {
+
+        super("Reclaimer");
+
+        this.rate    = Math.max(1, rate);
+        this.areas   = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+        this.pending = new LinkedHashSet<Path>();
+
+        this.setDaemon(true);
+        this.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    /**
+     *  Macht einen Bereich bekannt. Beim ersten Bekanntmachen wird der
+     *  Bereich zur Bereinigung vorgemerkt.
+     *  @param area Bereich
+     */
+    void register(Path area) {
+
+        if (this.areas.add(area)) this.schedule(area);
+    }
+
+    /**
+     *  Merkt einen Bereich zur Bereinigung vor.
+     *  @param area Bereich
+     */
+    synchronized void schedule(Path area) {
+
+        this.pending.add(area);
+
+        this.notifyAll();
+    }
+
+    /**
+     *  Beendet den Reclaimer. Nicht gel&ouml;schte Eintr&auml;ge verbleiben
+     *  im Bereich und werden mit der n&auml;chsten Laufzeit bereinigt.
+     */
+    void close() {
+
+        this.interrupt();
+    }
+
+    /**
+     *  Bereinigt die vorgemerkten Bereiche, bis der Reclaimer beendet wird.
+     */
+    public void run() {
+
+        Path area;
+
+        while (!this.isInterrupted()) {
+
+            synchronized (this) {
+
+                try {while (this.pending.isEmpty()) this.wait();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+
+                area = this.pending.iterator().next();
+
+                this.pending.remove(area);
+            }
+
+            try {this.reclaim(area);
+            } catch (InterruptedIOException exception) {
+                return;
+            } catch (IOException exception) {
+
+                //keine Fehlerbehandlung vorgesehen
+            }
+        }
+    }
+
+    /**
+     *  L&ouml;scht alle Eintr&auml;ge im angegebenen Bereich.
+     *  @param  area Bereich
+     *  @throws IOException bei fehlerhaftem Zugriff auf den Bereich oder beim
+     *          Beenden vom Reclaimer
+     */
+    private void reclaim(Path area) throws IOException {
+
+        DirectoryStream<Path> stream;
+
+        if (!Files.isDirectory(area)) return;
+
+        stream = Files.newDirectoryStream(area);
+
+        try {
+
+            for (Path path : stream) {
+
+                Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        Reclaimer.this.delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    public FileVisitResult visitFileFailed(Path file, IOException exception) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    public FileVisitResult postVisitDirectory(Path folder, IOException exception) throws IOException {
+                        Reclaimer.this.delete(folder);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+
+        } finally {
+
+            stream.close();
+        }
+    }
+
+    /**
+     *  L&ouml;scht den angegebenen Eintrag. Ist die Anzahl der Eintr&auml;ge
+     *  im aktuellen Zeitfenster erreicht, wird bis zum n&auml;chsten
+     *  Zeitfenster gewartet.
+     *  @param  path Eintrag
+     *  @throws InterruptedIOException beim Beenden vom Reclaimer
+     */
+    private void delete(Path path) throws InterruptedIOException {
+
+        long delay;
+
+        try {Files.deleteIfExists(path);
+        } catch (IOException exception) {
+
+            //keine Fehlerbehandlung vorgesehen
+        }
+
+        if (++this.count < this.rate) return;
+
+        delay = this.window +1000 -System.currentTimeMillis();
+
+        try {if (delay > 0) Thread.sleep(delay);
+        } catch (InterruptedException exception) {
+
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException();
+        }
+
+        this.count  = 0;
+        this.window = System.currentTimeMillis();
+    }
+}
\ No newline at end of file
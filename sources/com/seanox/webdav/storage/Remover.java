@@ -0,0 +1,239 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Advanced Server Developing
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ *  Remover l&ouml;scht ein Verzeichnis mit dem kompletten Inhalt. Die Dateien
+ *  werden beim Durchlaufen parallel &uuml;ber den Batch gel&ouml;scht, die
+ *  Verzeichnisse erst nach dem L&ouml;schen aller Dateien in der Reihenfolge
+ *  vom Durchlauf (von innen nach au&szlig;en). Verzeichnisse, in denen ein
+ *  Eintrag nicht gel&ouml;scht werden konnte, werden ausgelassen und nicht als
+ *  Fehler vermerkt, da der Fehler bereits mit dem Eintrag erfasst ist. Vom
+ *  Store selbst verwendete Eintr&auml;ge werden ausgelassen und bleiben mit
+ *  den &uuml;bergeordneten Verzeichnissen erhalten. Fehler einzelner
+ *  Eintr&auml;ge werden mit dem Pfad als URI im Batch vermerkt.<br>
+ *  <br>
+ *  Remover 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Remover extends SimpleFileVisitor<Path> {
+
+    /** Store vom zu l&ouml;schenden Verzeichnis */
+    private final AbstractStore store;
+
+    /** zu l&ouml;schendes Verzeichnis */
+    private final Path source;
+
+    /** zu l&ouml;schendes Verzeichnis als URI */
+    private final String uri;
+
+    /** Batch zur Ausf&uuml;hrung und Fehlererfassung */
+    private final Batch batch;
+
+    /** Verzeichnisse in der Reihenfolge vom Durchlauf */
+    private final List<Path> folders;
+
+    /** nicht leere Verzeichnisse als URI */
+    private final Set<String> retained;
+
+    /**
+     *  Konstruktor, richtet den Remover ein.
+     *  @param store  Store vom zu l&ouml;schenden Verzeichnis
+     *  @param source zu l&ouml;schendes Verzeichnis
+     *  @param uri    zu l&ouml;schendes Verzeichnis als URI
+     *  @param batch  Batch zur Ausf&uuml;hrung und Fehlererfassung
+     */
+    Remover(AbstractStore store, Path source, String uri, Batch batch) {
+
+        this.store    = store;
+        this.source   = source;
+        this.uri      = uri.endsWith("/") ? uri.substring(0, uri.length() -1) : uri;
+        this.batch    = batch;
+        this.folders  = new ArrayList<Path>();
+        this.retained = new HashSet<String>();
+    }
+
+    /**
+     *  Ermittelt den Pfad als URI zum angegebenen Eintrag.
+     *  @param  path Eintrag
+     *  @return der Pfad als URI
+     */
+    private String locate(Path path) {
+
+        StringBuilder uri;
+
+        //das Verzeichnis selbst ergibt relativ einen leeren Namen
+        if (path.equals(this.source)) return this.uri.length() == 0 ? "/" : this.uri;
+
+        uri = new StringBuilder(this.uri);
+
+        for (Path name : this.source.relativize(path)) uri.append("/").append(name.toString());
+
+        return uri.toString();
+    }
+
+    /**
+     *  L&auml;sst vom Store verwendete Verzeichnisse aus, deren
+     *  &uuml;bergeordnete Verzeichnisse werden als nicht leer vermerkt.
+     *  @param  folder     Verzeichnis
+     *  @param  attributes Attribute vom Verzeichnis
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     */
+    public FileVisitResult preVisitDirectory(Path folder, BasicFileAttributes attributes) {
+
+        String uri;
+
+        uri = this.locate(folder);
+
+        if (folder.equals(this.source) || !this.store.isReserved(uri)) return FileVisitResult.CONTINUE;
+
+        this.retain(this.retained, uri);
+
+        return FileVisitResult.SKIP_SUBTREE;
+    }
+
+    /**
+     *  L&ouml;scht die Datei &uuml;ber den Batch.
+     *  @param  file       Datei
+     *  @param  attributes Attribute der Datei
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     *  @throws IOException beim Abbruch vom Warten auf den Batch
+     */
+    public FileVisitResult visitFile(final Path file, BasicFileAttributes attributes) throws IOException {
+
+        String uri;
+
+        uri = this.locate(file);
+
+        this.store.touch();
+
+        //vom Store verwendete Dateien werden ausgelassen
+        if (this.store.isReserved(uri)) {
+
+            this.retain(this.retained, uri);
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        this.batch.submit(uri, new Callable<Void>() {
+            public Void call() throws IOException {
+                Files.delete(file);
+                return null;
+            }
+        });
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Vermerkt den Fehler beim Zugriff auf einen Eintrag.
+     *  @param  file      Eintrag
+     *  @param  exception aufgetretener Fehler
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     */
+    public FileVisitResult visitFileFailed(Path file, IOException exception) {
+
+        this.batch.fail(this.locate(file), exception);
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Vermerkt das Verzeichnis zum L&ouml;schen, wenn dieses vollst&auml;ndig
+     *  gelesen werden konnte, sonst den Fehler.
+     *  @param  folder    Verzeichnis
+     *  @param  exception aufgetretener Fehler oder <code>null</code>
+     *  @return das Ergebnis f&uuml;r den weiteren Durchlauf
+     */
+    public FileVisitResult postVisitDirectory(Path folder, IOException exception) {
+
+        if (exception != null) this.batch.fail(this.locate(folder), exception);
+        else this.folders.add(folder);
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     *  Vermerkt alle &uuml;bergeordneten Verzeichnisse vom angegebenen Pfad
+     *  bis zum zu l&ouml;schenden Verzeichnis als nicht leer.
+     *  @param retained nicht leere Verzeichnisse als URI
+     *  @param uri      Pfad als URI
+     */
+    private void retain(Set<String> retained, String uri) {
+
+        int cursor;
+
+        for (cursor = uri.lastIndexOf('/'); cursor >= this.uri.length(); cursor = uri.lastIndexOf('/', cursor -1)) {
+
+            if (!retained.add(cursor > 0 ? uri.substring(0, cursor) : "/")) break;
+            if (cursor <= 0) break;
+        }
+    }
+
+    /**
+     *  Wartet auf das L&ouml;schen aller Dateien und l&ouml;scht danach die
+     *  Verzeichnisse von innen nach au&szlig;en.
+     *  @throws IOException beim Abbruch vom Warten auf den Batch
+     */
+    void complete() throws IOException {
+
+        Set<String> retained;
+        String      uri;
+
+        this.batch.await();
+
+        retained = this.retained;
+
+        for (String entry : this.batch.getErrors().keySet()) this.retain(retained, entry);
+
+        for (Path folder : this.folders) {
+
+            uri = this.locate(folder);
+
+            if (retained.contains(uri)) continue;
+
+            try {Files.delete(folder);
+            } catch (IOException exception) {
+
+                this.batch.fail(uri, exception);
+
+                this.retain(retained, uri);
+            }
+        }
+    }
+}
\ No newline at end of file
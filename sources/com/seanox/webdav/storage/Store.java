@@ -23,10 +23,14 @@ package com.seanox.webdav.storage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.CopyOption;
 import java.security.Principal;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.seanox.webdav.storage.lock.Token;
 
 /**
  *  Interface for simple implementation of any store for the WebDav.<br>
@@ -144,6 +148,23 @@ public interface Store extends Cloneable {
     public void setResourceContent(String uri, InputStream content,
         String type, String encoding) throws IOException;
 
+    /**
+     *  Sets / stores the content of the resource specified by <code>uri</code>
+     *  with a known length. If the content ends before <code>length</code>
+     *  bytes, the resource is not changed.
+     *  @param uri      URI of the resource where the content will be stored
+     *  @param content  input stream from which the content will be read from
+     *  @param length   length of the content in bytes or <code>-1</code> if
+     *                  unknown
+     *  @param type     content type of the resource or <code>null</code> if
+     *                  unknown
+     *  @param encoding character encoding of the resource or <code>null</code>
+     *                  if unknown or not applicable
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public void setResourceContent(String uri, InputStream content, long length,
+        String type, String encoding) throws IOException;
+
     /**
      *  Gets the date of the last modiciation of the object specified by
      *  <code>uri</code>.
@@ -207,6 +228,23 @@ public interface Store extends Cloneable {
      */
     public String[] getChildrenNames(String uri) throws IOException;
 
+    /**
+     *  Opens a cursor over the children of the folder specified by
+     *  <code>uri</code>. The children are read while iterating, the cursor
+     *  must be closed after use.
+     *  @param  uri URI of the folder
+     *  @return cursor over the children or null if it is no folder
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Directory openDirectory(String uri) throws IOException;
+
+    /**
+     *  Returns the pool for parallel file system access. The pool is shared
+     *  by all instances of the store and must not be shut down by callers.
+     *  @return the pool or null if no parallelism is configured
+     */
+    public ForkJoinPool getWorkers();
+
     /**
      *  Gets the content of the resource specified by <code>resourceUri</code>.
      *  @param  uri   URI of the content resource
@@ -215,6 +253,20 @@ public interface Store extends Cloneable {
      */
     public InputStream getResourceContent(String uri) throws IOException;
 
+    /**
+     *  Gets the content of the resource specified by <code>uri</code> as
+     *  channel. For a store on the default file system this is a
+     *  <code>FileChannel</code>, which allows the transfer without copying
+     *  through the heap. The channel keeps reading the content as it was
+     *  when the channel was opened, since content is only ever replaced by
+     *  an atomic rename. A lock on the resource is therefore no longer
+     *  required once the channel is open.
+     *  @param  uri URI of the content resource
+     *  @return channel you can read the content of the resource from
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public SeekableByteChannel getResourceChannel(String uri) throws IOException;
+
     /**
      *  Gets the length of the content resource specified by <code>uri</code>.
      *  @param  uri URI of the content resource
@@ -225,6 +277,15 @@ public interface Store extends Cloneable {
      */
     public long getResourceLength(String uri) throws IOException;
 
+    /**
+     *  Gets the usable space in bytes for new content at the location
+     *  specified by <code>uri</code>.
+     *  @param  uri URI of the resource or folder
+     *  @return usable space in bytes, <code>-1</code> if unknown
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public long getUsableSpace(String uri) throws IOException;
+
     /**
      *  Gets the eTag of the resource specified by <code>uri</code>.
      *  @param  uri URI of the content resource
@@ -234,6 +295,18 @@ public interface Store extends Cloneable {
      */
     public String getETag(String uri) throws IOException;
 
+    /**
+     *  Gets a snapshot of the attributes of the object specified by
+     *  <code>uri</code>. The snapshot is read with a single access to the
+     *  store and should be preferred over the single attribute methods, if
+     *  more than one attribute is required.
+     *  @param  uri URI of the object, i.e. content resource or folder
+     *  @return snapshot of the attributes, <code>null</code> if the object
+     *          does not exist
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Attributes getAttributes(String uri) throws IOException;
+
     /**
      *  Move or rename a object specified by <code>uri</code> to a destination.
      *  @param  uri URI of the object, i.e. content resource or folder
@@ -252,6 +325,21 @@ public interface Store extends Cloneable {
      */
     public void copyObject(String uri, String destination, CopyOption... options) throws IOException;
 
+    /**
+     *  Copies the folder specified by <code>uri</code> with its attributes to
+     *  a destination. With <code>recursive</code> the complete content is
+     *  copied, otherwise only the folder itself. Failures of single members
+     *  do not abort the copy, they are returned with the URI at the
+     *  destination.
+     *  @param  uri         URI of the folder
+     *  @param  destination the path to the destination
+     *  @param  recursive   <code>true</code> to copy the complete content
+     *  @return the failures of members by URI at the destination, empty if
+     *          all members were copied
+     *  @throws IOException if the destination folder cannot be created
+     */
+    public Map<String, IOException> copyFolder(String uri, String destination, boolean recursive) throws IOException;
+
     /**
      *  Removes the object specified by <code>uri</code>.
      *  If this uri denotes a folder, then the folder must be empty in order to
@@ -260,6 +348,19 @@ public interface Store extends Cloneable {
      *  @throws IOException if something goes wrong on the store level
      */
     public void removeObject(String uri) throws IOException;
+
+    /**
+     *  Removes the folder specified by <code>uri</code> with its complete
+     *  content. Write access is checked once for the folder. Failures of
+     *  single members do not abort the removal, they are returned with their
+     *  URI. Folders which are not empty because of a failed member are kept
+     *  and not returned as failure.
+     *  @param  uri URI of the folder
+     *  @return the failures of members by URI, empty if the folder was
+     *          removed completely
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Map<String, IOException> removeFolder(String uri) throws IOException;
     
 
     /**
@@ -289,6 +390,67 @@ public interface Store extends Cloneable {
      */
     public void unlock(String uri) throws IOException;
 
+    /**
+     *  Submits a lock token of the current request, e.g. from the "If"
+     *  header. Exclusive locks of this instance are refused as long as the
+     *  resource or a member is locked by a WebDAV lock whose token has not
+     *  been submitted.
+     *  @param  token lock token
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public void submit(String token) throws IOException;
+
+    /**
+     *  Creates a WebDAV lock with a new lock token for the resource at "path".
+     *  Other than the locks of this instance the lock outlives the request
+     *  until it is revoked or timed out.
+     *  @param  uri       what resource to lock
+     *  @param  exclusive if the lock should be exclusive (or shared)
+     *  @param  deep      if the lock should apply to all members (infinity)
+     *  @param  owner     owner of the lock or <code>null</code>
+     *  @param  timeout   lifetime in milliseconds, <code>0</code> for infinite
+     *  @return the created lock, <code>null</code> if an existing WebDAV lock
+     *          prevented this
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Token acquire(String uri, boolean exclusive, boolean deep, String owner, long timeout) throws IOException;
+
+    /**
+     *  Refreshes the WebDAV lock of the given lock token.
+     *  @param  token   lock token
+     *  @param  timeout lifetime in milliseconds, <code>0</code> for infinite
+     *  @return the refreshed lock, <code>null</code> if the lock does not exist
+     *          (anymore)
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Token refresh(String token, long timeout) throws IOException;
+
+    /**
+     *  Revokes the WebDAV lock of the given lock token.
+     *  @param  token lock token
+     *  @return <code>true</code> if the lock was revoked
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public boolean revoke(String token) throws IOException;
+
+    /**
+     *  Revokes all WebDAV locks of the resource at "path" and of the resources
+     *  below it, e.g. after the resource was deleted or moved. Infinity locks
+     *  of the parent folders are kept.
+     *  @param  uri what resource to release
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public void revokeAll(String uri) throws IOException;
+
+    /**
+     *  Returns the WebDAV locks that apply to the resource at "path", i.e. the
+     *  locks of the resource and infinity locks of the parent folders.
+     *  @param  uri what resource to check
+     *  @return the applying locks, empty if the resource is not locked
+     *  @throws IOException if something goes wrong on the store level
+     */
+    public Token[] getTokens(String uri) throws IOException;
+
     /**
      *  Check to see if a resource is currently write locked. The method will
      *  look at the "If" header to make sure the client has give the appropriate
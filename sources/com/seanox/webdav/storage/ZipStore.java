@@ -94,6 +94,108 @@ import java.util.Map;
  *        angegeben, wird der Wert aus der Server-Konfiguration verwendet
  *      </td>
  *    </tr>
+ *    <tr>
+ *      <td><i>cache</i></td>
+ *      <td>
+ *        optionale Angabe der max. Anzahl von Eintr&auml;gen im gemeinsamen
+ *        Cache der Metadaten (Existenz, Typ, Gr&ouml;sse, Zeitpunkte und
+ *        Attribute), Standard, wenn nicht angegeben ist <code>0</code> und
+ *        der Cache ist deaktiviert
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>cachetime</i></td>
+ *      <td>
+ *        optionale Angabe der Lebensdauer von Eintr&auml;gen im Cache der
+ *        Metadaten in Millisekunden, Standard, wenn nicht angegeben ist
+ *        <code>1000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>threads</i></td>
+ *      <td>
+ *        optionale Angabe der Anzahl paralleler Zugriffe beim Ermitteln der
+ *        Attribute von Verzeichniseintr&auml;gen (PROPFIND) und beim Kopieren
+ *        und L&ouml;schen von Verzeichnissen (COPY, DELETE), Standard, wenn
+ *        nicht angegeben ist <code>0</code> (seriell)
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>infinity</i></td>
+ *      <td>
+ *        option f&uuml;r PROPFIND mit unbegrenzter Tiefe (Depth: infinity),
+ *        bei <code>off</code> werden solche Anfragen mit
+ *        <code>FORBIDDEN</code> (403) und <code>propfind-finite-depth</code>
+ *        abgelehnt, Standard, wenn nicht angegeben ist <code>on</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>entries</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Anzahl von Eintr&auml;gen einer
+ *        PROPFIND-Antwort, bei &Uuml;berschreitung wird die Antwort mit dem
+ *        Status <code>INSUFFICIENT_STORAGE</code> (507) f&uuml;r die
+ *        angefragte Ressource abgeschlossen, <code>0</code> ohne Begrenzung,
+ *        Standard, wenn nicht angegeben ist <code>100000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>duration</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Dauer einer PROPFIND-Antwort in
+ *        Millisekunden, bei &Uuml;berschreitung wird die Antwort mit dem
+ *        Status <code>INSUFFICIENT_STORAGE</code> (507) f&uuml;r die
+ *        angefragte Ressource abgeschlossen, <code>0</code> ohne Begrenzung,
+ *        Standard, wenn nicht angegeben ist <code>60000</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>cachecontrol</i></td>
+ *      <td>
+ *        optionale Angabe vom Header <code>Cache-Control</code>, welcher bei
+ *        GET und HEAD f&uuml;r Ressourcen gesendet wird (z.B. <code>no-
+ *        cache</code> f&uuml;r die Revalidierung per ETag), Standard, wenn
+ *        nicht angegeben wird kein Header gesendet
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>keepalive</i></td>
+ *      <td>
+ *        option f&uuml;r bestehen bleibende Verbindungen (HTTP/1.1),
+ *        Antworten mit vorab unbekannter L&auml;nge (Multistatus) werden dann
+ *        per <code>Transfer-Encoding: chunked</code> &uuml;bertragen,
+ *        Standard, wenn nicht angegeben ist <code>off</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>durability</i></td>
+ *      <td>
+ *        optionale Angabe der Dauerhaftigkeit beim Speichern von Ressourcen
+ *        (PUT): <code>none</code> ohne Synchronisation, <code>data</code>
+ *        synchronisiert den Inhalt (fdatasync), <code>full</code>
+ *        synchronisiert Datei und Verzeichnis (fsync), Standard, wenn nicht
+ *        angegeben ist <code>none</code>
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>expiration</i></td>
+ *      <td>
+ *        optionale Angabe der maximalen Lebensdauer von Sperreintr&auml;gen
+ *        in Millisekunden, danach werden Sperren nicht ordnungsgem&auml;ss
+ *        beendeter Transaktionen automatisch aufgehoben, Standard, wenn nicht
+ *        angegeben ist <code>0</code> (unbegrenzt)
+ *      </td>
+ *    </tr>
+ *    <tr>
+ *      <td><i>journal</i></td>
+ *      <td>
+ *        optionale Angabe vom Pfad f&uuml;r das Journal der dauerhaften
+ *        Sperren (LOCK), womit diese nach einem Neustart wiederhergestellt
+ *        werden, verwendet werden die Dateien mit den Endungen
+ *        <code>.0</code> und <code>.1</code>, ohne Angabe werden die Sperren
+ *        nur im Speicher gehalten
+ *      </td>
+ *    </tr>
  *  </table>
  *  <br>
  *  Beispiel:
@@ -27,7 +27,8 @@ import java.util.Date;
 /**
  *  Entry stellt einen Datenobjekt zur Haltlung von Informationen fuer eine
  *  Datensperre zur Verfuegung. Das Objekt wird ausschliesslich intern von
- *  Resource verwendet um die Sperreintraege zu einem Pfad zu verwalten.<br>
+ *  Resource verwendet um die Sperreintraege zu einem Pfad zu verwalten und
+ *  nur unter der Sperre vom Knoten der Ressource geaendert.<br>
  *  <br>
  *  Entry 1.2013.0516<br>
  *  Copyright (C) 2013 Seanox Software Solutions<br>
@@ -44,8 +45,8 @@ class Entry {
     /** eindeutige Transaktionskennung vom Sperreintrag */
     private String signature;
 
-    /** Zeitpunkt der Einrichtung des Sperreintrag */
-    private long timing;
+    /** Zeitpunkt der Einrichtung oder Erneuerung des Sperreintrag */
+    private volatile long timing;
 
     /** Option f&uuml;r eine exclusiven Sperreintrag */
     private boolean exclusive;
@@ -72,7 +73,7 @@ class Entry {
      *  Weitet den Sperreintrag um eine weitere Nutzung aus.
      *  @return die aktuelle Instanz vom Sperreintrag 
      */
-    synchronized Entry share() {
+    Entry share() {
 
         this.count++;
 
@@ -84,7 +85,7 @@ class Entry {
      *  @param  exclusive <code>true</code> exklusive Nutzung
      *  @return die aktuelle Instanz vom Sperreintrag 
      */
-    synchronized Entry share(boolean exclusive) {
+    Entry share(boolean exclusive) {
 
         if (exclusive) this.exclusive = true;
 
@@ -100,7 +101,7 @@ class Entry {
      *  @return die aktuelle Instanz vom Sperreintrag, wenn eine weitere Nutzung
      *          besteht, sonst <code>null</code>
      */
-    synchronized Entry release() {
+    Entry release() {
 
         this.count--;
 
@@ -126,8 +127,21 @@ class Entry {
     }
 
     /**
-     *  R&uuml;ckgabe vom Zeitpunkt der Einrichtung des Sperreintrag.
-     *  @return der Zeitpunkt der Einrichtung des Sperreintrag
+     *  Erneuert den Zeitpunkt vom Sperreintrag, womit dessen Lebensdauer ab
+     *  dem angegebenen Zeitpunkt neu beginnt. Der Sperreintrag darf dabei
+     *  nicht im Timer-Wheel eingetragen sein, da dieses den Zeitpunkt zur
+     *  Ermittlung vom Segment verwendet.
+     *  @param timing Zeitpunkt in Millisekunden
+     */
+    void refresh(long timing) {
+        
+        this.timing = timing;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Zeitpunkt der Einrichtung oder Erneuerung des
+     *  Sperreintrag.
+     *  @return der Zeitpunkt der Einrichtung oder Erneuerung des Sperreintrag
      */
     long getTiming() {
 
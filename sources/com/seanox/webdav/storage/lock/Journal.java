@@ -0,0 +1,496 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Module for Seanox Devwex
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage.lock;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ *  Journal stellt ein Protokoll der dauerhaften Sperren (WebDAV Locks) zur
+ *  Verf&uuml;gung, mit welchem der Lock-Manager die Sperren nach einem
+ *  Neustart wiederherstellt. Das Protokoll wird nur fortgeschrieben
+ *  (Append-Only) und liegt als Memory-Mapped-File vor, womit das Eintragen
+ *  ohne Systemaufruf und das Einlesen ohne Kopieren der Daten erfolgt. Die
+ *  Eintr&auml;ge liegen nach dem Schreiben im Cache vom Betriebssystem und
+ *  &uuml;berstehen damit das Beenden vom Prozess.<br>
+ *  <br>
+ *  Jeder Eintrag beginnt mit seiner L&auml;nge und einer Pr&uuml;fsumme vom
+ *  Inhalt. Die L&auml;nge wird zuletzt geschrieben, da das Betriebssystem die
+ *  Seiten vom Mapping bei einem Absturz aber in beliebiger Reihenfolge
+ *  zur&uuml;ckschreibt, wird beim Einlesen jeder Eintrag &uuml;ber die
+ *  Pr&uuml;fsumme und die L&auml;ngen der enthaltenen Felder gepr&uuml;ft.
+ *  Das Einlesen endet mit dem ersten ung&uuml;ltigen Eintrag, an dessen
+ *  Position das Journal fortgeschrieben wird.<br>
+ *  <br>
+ *  Zur Verdichtung werden zwei Dateien abwechselnd verwendet. &Uuml;bersteigt
+ *  die Anzahl der Eintr&auml;ge deutlich die Anzahl der bestehenden Sperren,
+ *  werden die bestehenden Sperren in die andere Datei geschrieben, welche
+ *  erst danach mit einer h&ouml;heren Generation g&uuml;ltig wird. Beim
+ *  Einlesen wird die g&uuml;ltige Datei mit der h&ouml;chsten Generation
+ *  verwendet. Da die Dateien weder gel&ouml;scht noch ersetzt werden, ist
+ *  dies auch bei bestehendem Mapping m&ouml;glich. Das Objekt wird
+ *  ausschliesslich intern vom Lock-Manager verwendet.<br>
+ *  <br>
+ *  Journal 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Journal {
+
+    /** Pfade der beiden Dateien */
+    private final Path[] paths;
+
+    /** Mapping der beiden Dateien */
+    private final MappedByteBuffer[] buffers;
+
+    /** bestehende Sperren vom Lock-Manager */
+    private final Map<String, Token> tokens;
+
+    /** Index der aktuell verwendeten Datei */
+    private int active;
+
+    /** Generation der aktuell verwendeten Datei */
+    private long generation;
+
+    /** Position zum Schreiben vom n&auml;chsten Eintrag */
+    private int position;
+
+    /** Anzahl der Eintr&auml;ge in der aktuell verwendeten Datei */
+    private int records;
+
+    /** Option wenn das Journal geschlossen wurde */
+    private boolean closed;
+
+    /** Kennung der Dateien */
+    private static final int MAGIC = 0x534C4A32;
+
+    /** Gr&ouml;sse vom Dateikopf (Kennung und Generation) */
+    private static final int HEADER = 12;
+
+    /** initiale Gr&ouml;sse vom Mapping in Bytes */
+    private static final int CAPACITY = 1024 *1024;
+
+    /** minimale Anzahl der Eintr&auml;ge f&uuml;r eine Verdichtung */
+    private static final int COMPACTION = 4096;
+
+    /** Konstante f&uuml;r den Eintrag einer neuen Sperre */
+    private static final byte ACQUIRE = 1;
+
+    /** Konstante f&uuml;r den Eintrag einer erneuerten Sperre */
+    private static final byte REFRESH = 2;
+
+    /** Konstante f&uuml;r den Eintrag einer aufgehobenen Sperre */
+    private static final byte REVOKE = 3;
+
+    /** Zeichensatz der Zeichenketten */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     *  Konstruktor, richtet das Journal ein. Verwendet werden die Dateien mit
+     *  den Endungen <code>.0</code> und <code>.1</code> zum angegebenen Pfad.
+     *  @param path   Pfad vom Journal
+     *  @param tokens bestehende Sperren vom Lock-Manager
+     */
+    Journal(Path path, Map<String, Token> tokens) {
+
+        this.paths   = new Path[] {path.resolveSibling(path.getFileName() +".0"), path.resolveSibling(path.getFileName() +".1")};
+        this.buffers = new MappedByteBuffer[2];
+        this.tokens  = tokens;
+    }
+
+    /**
+     *  &Ouml;ffnet bzw. erweitert das Mapping der angegebenen Datei.
+     *  @param  index    Index der Datei
+     *  @param  capacity minimale Gr&ouml;sse in Bytes
+     *  @return das Mapping der Datei
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datei
+     */
+    private MappedByteBuffer map(int index, long capacity) throws IOException {
+
+        FileChannel channel;
+
+        if (capacity > Integer.MAX_VALUE) throw new IOException("Journal capacity exceeded");
+
+        channel = FileChannel.open(this.paths[index], StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        //das Mapping bleibt auch nach dem Schliessen vom Kanal bestehen
+        try {this.buffers[index] = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        } finally {
+            channel.close();
+        }
+
+        return this.buffers[index];
+    }
+
+    /**
+     *  &Ouml;ffnet das Journal und liest die bestehenden Sperren ein.
+     *  Abgelaufene Sperren werden dabei verworfen. Zum Abschluss wird das
+     *  Journal ggf. verdichtet.
+     *  @return die bestehenden Sperren
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Dateien
+     */
+    synchronized List<Token> open() throws IOException {
+
+        ByteBuffer         record;
+        CRC32              checksum;
+        Map<String, Token> tokens;
+        List<Token>        result;
+        MappedByteBuffer   buffer;
+        String             owner;
+        String             signature;
+        String             uri;
+        Token              token;
+
+        long               deadline;
+        long               generation;
+        long               time;
+        long               timeout;
+        byte[]             bytes;
+        int                index;
+        int                length;
+        int                offset;
+        byte               flags;
+        byte               type;
+
+        this.active     = -1;
+        this.generation = 0;
+
+        //die gueltige Datei mit der hoechsten Generation wird verwendet
+        for (index = 0; index < 2; index++) {
+
+            buffer = this.map(index, Journal.CAPACITY);
+
+            generation = buffer.getInt(0) == Journal.MAGIC ? buffer.getLong(4) : 0;
+
+            if (generation > this.generation || this.active < 0) {
+
+                this.active     = index;
+                this.generation = generation;
+            }
+        }
+
+        buffer   = this.buffers[this.active];
+        tokens   = new LinkedHashMap<String, Token>();
+        checksum = new CRC32();
+
+        //die Eintraege werden bis zum ersten ungueltigen Eintrag gelesen
+        for (offset = Journal.HEADER, this.records = 0; this.generation > 0 && offset +8 <= buffer.capacity(); offset += length +8, this.records++) {
+
+            if ((length = buffer.getInt(offset)) <= 0 || length > buffer.capacity() -offset -8) break;
+
+            bytes = new byte[length];
+
+            buffer.position(offset +8);
+            buffer.get(bytes);
+
+            checksum.reset();
+            checksum.update(bytes, 0, length);
+
+            if ((int)checksum.getValue() != buffer.getInt(offset +4)) break;
+
+            record = ByteBuffer.wrap(bytes);
+
+            //die Felder werden durch die Laenge vom Eintrag begrenzt, bei
+            //fehlerhaftem Inhalt endet das Einlesen beim letzten gueltigen
+            //Eintrag
+            try {
+
+                type      = record.get();
+                signature = Journal.read(record);
+
+                if (signature == null) break;
+
+                if (type == Journal.ACQUIRE) {
+
+                    uri      = Journal.read(record);
+                    flags    = record.get();
+                    owner    = Journal.read(record);
+                    timeout  = record.getLong();
+                    deadline = record.getLong();
+
+                    if (uri == null || record.hasRemaining()) break;
+
+                    tokens.put(signature, new Token(signature, uri, (flags & 1) != 0, (flags & 2) != 0, owner, timeout, deadline));
+
+                } else if (type == Journal.REFRESH) {
+
+                    timeout  = record.getLong();
+                    deadline = record.getLong();
+
+                    if (record.hasRemaining()) break;
+
+                    if ((token = tokens.get(signature)) != null) token.restore(timeout, deadline);
+
+                } else if (type == Journal.REVOKE && !record.hasRemaining()) {
+
+                    tokens.remove(signature);
+
+                } else break;
+
+            } catch (RuntimeException exception) {
+
+                break;
+            }
+        }
+
+        //das Journal wird nach dem letzten gueltigen Eintrag abgeschnitten
+        if (this.generation > 0 && offset +4 <= buffer.capacity()) buffer.putInt(offset, 0);
+
+        this.position = this.generation > 0 ? offset : Journal.HEADER;
+
+        result = new ArrayList<Token>();
+        time   = System.currentTimeMillis();
+
+        for (Token entry : tokens.values()) {
+
+            if (entry.getDeadline() > time) result.add(entry);
+        }
+
+        //ohne gueltige Datei oder mit ueberwiegend veralteten Eintraegen wird
+        //das Journal mit den bestehenden Sperren neu geschrieben
+        if (this.generation <= 0 || this.records > Math.max(Journal.COMPACTION, result.size() *2)) this.compact(result);
+
+        return result;
+    }
+
+    /**
+     *  Liest eine Zeichenkette aus dem Eintrag. Die L&auml;nge der
+     *  Zeichenkette wird dabei durch den verbleibenden Eintrag begrenzt.
+     *  @param  buffer Eintrag
+     *  @return die gelesene Zeichenkette, sonst <code>null</code>
+     *  @throws BufferUnderflowException bei ung&uuml;ltiger L&auml;nge
+     */
+    private static String read(ByteBuffer buffer) {
+
+        byte[] bytes;
+
+        int    length;
+
+        if ((length = buffer.getInt()) == -1) return null;
+
+        if (length < 0 || length > buffer.remaining()) throw new BufferUnderflowException();
+
+        bytes = new byte[length];
+
+        buffer.get(bytes);
+
+        return new String(bytes, Journal.CHARSET);
+    }
+
+    /**
+     *  Schreibt eine Zeichenkette in den Eintrag.
+     *  @param buffer Eintrag
+     *  @param string Zeichenkette oder <code>null</code>
+     */
+    private static void write(ByteBuffer buffer, byte[] string) {
+
+        if (string == null) {buffer.putInt(-1); return;}
+
+        buffer.putInt(string.length);
+        buffer.put(string);
+    }
+
+    /**
+     *  Schreibt einen Eintrag an das Ende der angegebenen Datei. Die
+     *  L&auml;nge wird erst nach dem Inhalt, der Pr&uuml;fsumme und dem
+     *  Abschluss dahinter geschrieben, womit der Eintrag erst dann
+     *  g&uuml;ltig ist.
+     *  @param  index Index der Datei
+     *  @param  type  Art vom Eintrag
+     *  @param  token Sperre
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Datei
+     */
+    private void append(int index, byte type, Token token) throws IOException {
+
+        ByteBuffer       record;
+        CRC32            checksum;
+        MappedByteBuffer buffer;
+
+        byte[]           signature;
+        byte[]           uri;
+        byte[]           owner;
+
+        int              length;
+
+        signature = token.getToken().getBytes(Journal.CHARSET);
+        uri       = type == Journal.ACQUIRE ? token.getUri().getBytes(Journal.CHARSET) : null;
+        owner     = type == Journal.ACQUIRE && token.getOwner() != null ? token.getOwner().getBytes(Journal.CHARSET) : null;
+
+        length = 1 +4 +signature.length;
+
+        if (type == Journal.ACQUIRE) length += 4 +uri.length +1 +4 +(owner == null ? 0 : owner.length);
+        if (type != Journal.REVOKE) length += 16;
+
+        record = ByteBuffer.allocate(length);
+        record.put(type);
+
+        Journal.write(record, signature);
+
+        if (type == Journal.ACQUIRE) {
+
+            Journal.write(record, uri);
+
+            record.put((byte)((token.isExclusive() ? 1 : 0) | (token.isDeep() ? 2 : 0)));
+
+            Journal.write(record, owner);
+        }
+
+        if (type != Journal.REVOKE) {
+
+            record.putLong(token.getTimeout());
+            record.putLong(token.getDeadline());
+        }
+
+        checksum = new CRC32();
+        checksum.update(record.array(), 0, length);
+
+        buffer = this.buffers[index];
+
+        //reicht das Mapping nicht aus, wird es verdoppelt
+        if (this.position +8 +length +4 > buffer.capacity()) buffer = this.map(index, Math.max((long)buffer.capacity() *2, this.position +length +12L));
+
+        buffer.position(this.position +8);
+        buffer.put(record.array());
+        buffer.putInt(0);
+        buffer.putInt(this.position +4, (int)checksum.getValue());
+        buffer.putInt(this.position, length);
+
+        this.position += length +8;
+        this.records++;
+    }
+
+    /**
+     *  Tr&auml;gt eine Sperre in das Journal ein. Fehler beim Schreiben
+     *  beenden das Journal, die Sperren bleiben davon unber&uuml;hrt.
+     *  @param type  Art vom Eintrag
+     *  @param token Sperre
+     */
+    private synchronized void record(byte type, Token token) {
+
+        if (this.closed) return;
+
+        try {
+
+            this.append(this.active, type, token);
+
+            //mit ueberwiegend veralteten Eintraegen wird das Journal verdichtet
+            if (this.records > Math.max(Journal.COMPACTION, this.tokens.size() *2)) this.compact(this.tokens.values());
+
+        } catch (IOException exception) {
+
+            this.closed = true;
+        }
+    }
+
+    /**
+     *  Tr&auml;gt eine neue Sperre in das Journal ein.
+     *  @param token Sperre
+     */
+    void acquire(Token token) {
+
+        this.record(Journal.ACQUIRE, token);
+    }
+
+    /**
+     *  Tr&auml;gt eine erneuerte Sperre in das Journal ein.
+     *  @param token Sperre
+     */
+    void refresh(Token token) {
+
+        this.record(Journal.REFRESH, token);
+    }
+
+    /**
+     *  Tr&auml;gt eine aufgehobene Sperre in das Journal ein.
+     *  @param token Sperre
+     */
+    void revoke(Token token) {
+
+        this.record(Journal.REVOKE, token);
+    }
+
+    /**
+     *  Verdichtet das Journal, indem die angegebenen Sperren in die andere
+     *  Datei geschrieben werden, welche erst danach mit der n&auml;chsten
+     *  Generation g&uuml;ltig und verwendet wird.
+     *  @param  tokens bestehende Sperren
+     *  @throws IOException bei fehlerhaftem Zugriff auf die Dateien
+     */
+    private void compact(Iterable<Token> tokens) throws IOException {
+
+        MappedByteBuffer buffer;
+
+        long             time;
+        int              index;
+
+        index  = 1 -this.active;
+        buffer = this.buffers[index];
+        time   = System.currentTimeMillis();
+
+        //die andere Datei wird vor dem Schreiben ungueltig
+        buffer.putInt(0, Journal.MAGIC);
+        buffer.putLong(4, 0);
+        buffer.putInt(Journal.HEADER, 0);
+
+        this.position = Journal.HEADER;
+        this.records  = 0;
+
+        for (Token token : tokens) {
+
+            if (token.getDeadline() > time) this.append(index, Journal.ACQUIRE, token);
+        }
+
+        buffer = this.buffers[index];
+        buffer.force();
+        buffer.putLong(4, ++this.generation);
+        buffer.force();
+
+        this.active = index;
+    }
+
+    /**
+     *  Schliesst das Journal und schreibt die Eintr&auml;ge auf den
+     *  Datentr&auml;ger.
+     */
+    synchronized void close() {
+
+        if (this.closed) return;
+
+        this.closed = true;
+
+        if (this.active >= 0) this.buffers[this.active].force();
+    }
+}
\ No newline at end of file
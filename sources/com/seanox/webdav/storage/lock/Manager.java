@@ -21,17 +21,56 @@
  */
 package com.seanox.webdav.storage.lock;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.seanox.common.Codec;
 
 /**
  *  Manager stellt eine Verwaltung von Sperreintr&auml;gen f&uuml;r als URI
- *  angegebene Ressourcen zur Verf&uuml;gung.<br>
+ *  angegebene Ressourcen zur Verf&uuml;gung. Die Sperren werden in einem
+ *  Verzeichnisbaum nach den Segmenten vom Pfad gehalten, womit die
+ *  Pr&uuml;fung auf &uuml;ber- und untergeordnete Sperren unabh&auml;ngig von
+ *  der Anzahl der Sperren nur von der Tiefe vom Pfad abh&auml;ngt.<br>
+ *  <br>
+ *  Einfache Sperren und Abfragen werden parallel ausgef&uuml;hrt, nur
+ *  exklusive Sperren und das Entfernen leerer Knoten erfolgen unter der
+ *  exklusiven Sperre vom Manager. &Auml;nderungen an der Ressource eines
+ *  Pfads werden &uuml;ber die Sperre vom jeweiligen Knoten synchronisiert.
+ *  Die Sperren einer Transaktionskennung werden zus&auml;tzlich in einem
+ *  eigenen Verzeichnis gehalten.<br>
+ *  <br>
+ *  Dauerhafte Sperren (WebDAV Locks) werden mit der Sperrkennung als
+ *  Transaktionskennung als einfache Sperre eingetragen und bestehen damit
+ *  &uuml;ber den Request hinaus. Da einfache Sperren andere Zugriffe nicht
+ *  verhindern, werden die dauerhaften Sperren zu einem Pfad &uuml;ber den
+ *  Verzeichnisbaum ermittelt und f&uuml;r &auml;ndernde Zugriffe ohne
+ *  passende Sperrkennung separat gepr&uuml;ft. Abgelaufene dauerhafte
+ *  Sperren werden beim n&auml;chsten Zugriff aufgehoben. Optional werden die
+ *  dauerhaften Sperren in einem Journal protokolliert und beim Einrichten
+ *  vom Manager daraus wiederhergestellt.<br>
+ *  <br>
+ *  Da eine einfache Sperre nur durch exklusive Sperren anderer Transaktionen
+ *  verhindert wird, wird diese optimistisch ohne Sperre vom Manager und ohne
+ *  Eintrag gepr&uuml;ft. Die Pr&uuml;fung ist g&uuml;ltig, wenn zwischenzeitlich
+ *  keine exklusive Sperre eingerichtet wurde, was &uuml;ber einen Z&auml;hler
+ *  der exklusiven Sperrungen (Epoche) erkannt wird. Nur sonst wird die
+ *  einfache Sperre unter der Sperre vom Manager gepr&uuml;ft und
+ *  eingetragen.<br>
  *  <br>
  *  Allgemeine Regeln f&uuml;r den Sperrmechanismus:<br>
  *  <ul>
@@ -56,11 +95,11 @@ import com.seanox.common.Codec;
  *      Transaktionen.
  *    </li>
  *    <li>
- *      Ein Timeout f&uuml;r eingerichtete Transaktionen/Locks w&auml;re
- *      sinnvoll, ist in dieser Version aber nicht implementiert. Ziel
- *      k&ouml;nnte eine automatische Bereinigung &uuml;berf&auml;lliger
- *      Transaktionen/Locks sein. Bei der weiteren Verwendung solcher
- *      Transaktionen/Locks m&uuml;ssten diese dann zum Fehler f&uuml;hren.
+ *      Optional haben Sperreintr&auml;ge eine maximale Lebensdauer. Nach
+ *      deren Ablauf werden die Sperreintr&auml;ge &uuml;ber ein Timer-Wheel
+ *      automatisch aufgehoben, womit Sperren nicht ordnungsgem&auml;ss
+ *      beendeter Transaktionen nicht dauerhaft bestehen bleiben. Die Anzahl
+ *      abgelaufener Sperreintr&auml;ge wird gez&auml;hlt.
  *    </li>
  *  </ul>
  *  Manager 1.2013.0423<br>
@@ -72,17 +111,111 @@ import com.seanox.common.Codec;
  */
 public class Manager {
 
-    /** Verzeichnis der exklusiven gesperrten URIs */
-    private volatile List<String> exclusive;
+    /** Wurzelknoten vom Verzeichnisbaum der Sperren */
+    private volatile Node root;
+
+    /** Verzeichnis der Ressourcen je Transaktionskennung */
+    private volatile ConcurrentMap<String, Set<Resource>> signatures;
+    
+    /** Verzeichnis der dauerhaften Sperren (Sperrkennung | Sperre) */
+    private volatile ConcurrentMap<String, Token> tokens;
+    
+    /** Knoten, deren Ressource entfernt wurde */
+    private volatile Queue<Node> released;
+    
+    /** Sperre zur Synchronisation vom Verzeichnisbaum */
+    private volatile ReadWriteLock guard;
+    
+    /** Epoche der exklusiven Sperren, ungerade w&auml;hrend der Einrichtung */
+    private volatile AtomicLong epoch;
+    
+    /** Zeitpunkt der n&auml;chsten Bereinigung abgelaufener Sperren */
+    private volatile long sweep;
+    
+    /** Anzahl der abgelaufenen Sperreintr&auml;ge */
+    private volatile AtomicLong expirations;
+    
+    /** Timer-Wheel f&uuml;r den Ablauf der Sperreintr&auml;ge */
+    private volatile Wheel wheel;
+    
+    /** Zeitpunkt der letzten Aktivit&auml;t je Transaktionskennung */
+    private volatile ConcurrentMap<String, Long> activities;
+    
+    /** Lebensdauer der Sperreintr&auml;ge in Millisekunden */
+    private volatile long expiration;
+    
+    /** Journal der dauerhaften Sperren */
+    private volatile Journal journal;
 
-    /** Verzeichnis der registrierten Sperren (URI | Ressource) */
-    private volatile Map<String, Resource> resources;
+    /** Intervall der Bereinigung abgelaufener Sperren in Millisekunden */
+    private static final long SWEEP = 60000;
 
     /** Konstruktor, richtet Manager zur Haltung von Sperren ein. */
     public Manager() {
     
-        this.resources = Collections.synchronizedMap(new HashMap<String, Resource>());
-        this.exclusive = Collections.synchronizedList(new ArrayList<String>());
+        this(0);
+    }
+    
+    /**
+     *  Konstruktor, richtet Manager zur Haltung von Sperren mit einer
+     *  maximalen Lebensdauer der Sperreintr&auml;ge ein.
+     *  @param expiration Lebensdauer der Sperreintr&auml;ge in Millisekunden,
+     *                    <code>0</code> ohne Begrenzung
+     */
+    public Manager(long expiration) {
+    
+        this.root        = new Node("", null);
+        this.signatures  = new ConcurrentHashMap<String, Set<Resource>>();
+        this.tokens      = new ConcurrentHashMap<String, Token>();
+        this.released    = new ConcurrentLinkedQueue<Node>();
+        this.guard       = new ReentrantReadWriteLock();
+        this.epoch       = new AtomicLong();
+        this.expirations = new AtomicLong();
+        this.activities  = new ConcurrentHashMap<String, Long>();
+        
+        if (expiration <= 0) return;
+        
+        this.expiration = expiration;
+        
+        this.wheel = new Wheel(this, expiration);
+        this.wheel.start();
+    }
+    
+    /**
+     *  Konstruktor, richtet Manager zur Haltung von Sperren mit einer
+     *  maximalen Lebensdauer der Sperreintr&auml;ge und einem Journal der
+     *  dauerhaften Sperren ein. Die bestehenden dauerhaften Sperren werden
+     *  aus dem Journal wiederhergestellt.
+     *  @param  expiration Lebensdauer der Sperreintr&auml;ge in Millisekunden,
+     *                     <code>0</code> ohne Begrenzung
+     *  @param  journal    Pfad vom Journal, <code>null</code> ohne Journal
+     *  @throws IOException bei fehlerhaftem Zugriff auf das Journal
+     */
+    public Manager(long expiration, Path journal) throws IOException {
+        
+        this(expiration);
+        
+        if (journal == null) return;
+        
+        this.journal = new Journal(journal, this.tokens);
+        
+        try {
+            
+            //die Sperren werden ohne Pruefung auf Konflikte eingetragen, da
+            //diese bereits bei der Einrichtung geprueft wurden
+            for (Token token : this.journal.open()) {
+                
+                this.tokens.put(token.getToken(), token);
+                
+                this.register(Manager.optimizeUri(token.getUri()), token.getToken(), false);
+            }
+            
+        } catch (IOException exception) {
+            
+            this.close();
+            
+            throw exception;
+        }
     }
     
     /**
@@ -100,6 +233,33 @@ public class Manager {
 
         return uri;
     }
+    
+    /**
+     *  Ermittelt den Knoten zum als URI angegebenen Pfad im Verzeichnisbaum.
+     *  @param  uri    vereinfachter Pfad als URI
+     *  @param  create <code>true</code> legt nicht existierende Knoten an
+     *  @return der Knoten zum Pfad, sonst <code>null</code>
+     */
+    private Node locate(String uri, boolean create) {
+        
+        Node node;
+        
+        int  cursor;
+        int  offset;
+        
+        node = this.root;
+        
+        for (cursor = 0; node != null && cursor < uri.length(); cursor = offset +1) {
+            
+            offset = uri.indexOf('/', cursor);
+            
+            if (offset < 0) offset = uri.length();
+            
+            if (offset > cursor) node = node.getChild(uri.substring(cursor, offset), create);
+        }
+        
+        return node;
+    }
 
     /**
      *  R&uuml;ckgabe <code>true</code> wenn die bei per URI angegebene
@@ -109,7 +269,7 @@ public class Manager {
      *  @param  signature eindeutige Transaktionskennung
      *  @return <code>true</code> bei per URI angegebener gesperrter Ressource
      */
-    public synchronized boolean isLocked(String uri, String signature) {
+    public boolean isLocked(String uri, String signature) {
 
         return this.isLocked(uri, signature, false);
     }
@@ -124,23 +284,67 @@ public class Manager {
      *          Sperrung
      *  @return <code>true</code> bei per URI angegebener gesperrter Ressource
      */
-    public synchronized boolean isLocked(String uri, String signature, boolean exclusive) {
+    public boolean isLocked(String uri, String signature, boolean exclusive) {
         
-        Resource resource;
-
-        if (this.resources.isEmpty()) return false;
-
-        uri = Manager.optimizeUri(uri);
-
-        for (String lock : exclusive ? this.exclusive : this.resources.keySet()) {
-
-            if (uri.startsWith(lock) || lock.startsWith(uri)) {
-
-                resource = this.resources.get(lock);
+        this.guard.readLock().lock();
+        
+        try {return this.isConflict(Manager.optimizeUri(uri), signature, exclusive);
+        } finally {
+            
+            this.guard.readLock().unlock();
+        }
+    }
+    
+    /**
+     *  R&uuml;ckgabe <code>true</code> wenn die per vereinfachtem Pfad
+     *  angegebene Ressource durch andere Transaktionen gesperrt ist. Der
+     *  Aufruf erfolgt unter der Sperre vom Manager oder optimistisch mit
+     *  anschliessender Pr&uuml;fung der Epoche.
+     *  @param  uri       vereinfachter Pfad der Ressource als URI
+     *  @param  signature eindeutige Transaktionskennung
+     *  @param  exclusive Option <code>true</code> pr&uuml;ft auf exclusive
+     *          Sperrung
+     *  @return <code>true</code> bei per URI angegebener gesperrter Ressource
+     */
+    private boolean isConflict(String uri, String signature, boolean exclusive) {
+        
+        ArrayDeque<Node> stack;
+        Node             node;
+        
+        int              cursor;
+        int              offset;
 
-                if (resource == null || resource.isLocked(signature)) continue;
+        if ((exclusive ? this.root.exclusives : this.root.resources).get() <= 0) return false;
 
-                return true;
+        //die uebergeordneten Knoten werden entlang vom Pfad geprueft
+        for (node = this.root, cursor = 0; cursor < uri.length(); cursor = offset +1) {
+            
+            offset = uri.indexOf('/', cursor);
+            
+            if (offset < 0) offset = uri.length();
+            
+            if (offset <= cursor) continue;
+            
+            if (node.isLocked(signature, exclusive)) return true;
+            
+            node = node.getChild(uri.substring(cursor, offset), false);
+            
+            if (node == null) return false;
+        }
+        
+        //der Knoten selbst und die untergeordneten Knoten werden nur ueber
+        //gesperrte Teilbaeume geprueft
+        stack = new ArrayDeque<Node>();
+        
+        for (stack.push(node); (node = stack.poll()) != null;) {
+            
+            if (node.isLocked(signature, exclusive)) return true;
+            
+            if (node.children == null) continue;
+            
+            for (Node child : node.children.values()) {
+                
+                if ((exclusive ? child.exclusives : child.resources).get() > 0) stack.push(child);
             }
         }
 
@@ -160,7 +364,7 @@ public class Manager {
      *  @param  signature eindeutige Transaktionskennung
      *  @return <code>true</code> bei erfolgreich eingetragener Sperrung
      */
-    public synchronized boolean lock(String uri, String signature) {
+    public boolean lock(String uri, String signature) {
 
         return this.lock(uri, signature, false);
     }
@@ -179,27 +383,110 @@ public class Manager {
      *  @param  exclusive <code>true</code> bei exklusiver Sperrung
      *  @return <code>true</code> bei erfolgreich eingetragener Sperrung
      */
-    public synchronized boolean lock(String uri, String signature, boolean exclusive) {
+    public boolean lock(String uri, String signature, boolean exclusive) {
     
-        Resource resource;
+        long epoch;
         
         if (signature == null || signature.trim().length() == 0) return false;
 
-        if (this.isLocked(uri, signature, true)) return false;
-
         uri = Manager.optimizeUri(uri);
+        
+        //einfache Sperren werden ohne Eintrag geprueft, solange keine
+        //exklusive Sperre eingerichtet wird (ungerade Epoche) oder sich
+        //zwischenzeitlich geaendert hat
+        if (!exclusive) {
+            
+            epoch = this.epoch.get();
+            
+            if ((epoch & 1) == 0 && (this.root.exclusives.get() <= 0 || !this.isConflict(uri, signature, true))
+                    && epoch == this.epoch.get()) return true;
+        }
+        
+        //einfache Sperren werden parallel, exklusive Sperren einzeln gesetzt
+        if (exclusive) this.guard.writeLock().lock();
+        else this.guard.readLock().lock();
+        
+        try {
+            
+            if (exclusive) this.prune();
 
-        resource = this.resources.get(uri);
+            if (this.isConflict(uri, signature, true)) return false;
+    
+            return this.register(uri, signature, exclusive);
+            
+        } finally {
+            
+            if (exclusive) this.guard.writeLock().unlock();
+            else this.guard.readLock().unlock();
+        }
+    }
+    
+    /**
+     *  Tr&auml;gt die Sperre zur angegebenen Signatur f&uuml;r die per
+     *  vereinfachtem Pfad angegebene Ressource ein. Der Aufruf erfolgt nur
+     *  unter der Sperre vom Manager nach der Pr&uuml;fung auf Konflikte.
+     *  @param  uri       vereinfachter Pfad der Ressource als URI
+     *  @param  signature eindeutige Transaktionskennung
+     *  @param  exclusive <code>true</code> bei exklusiver Sperrung
+     *  @return <code>true</code> bei erfolgreich eingetragener Sperrung
+     */
+    private boolean register(String uri, String signature, boolean exclusive) {
+        
+        Node     node;
+        Resource resource;
+        
+        boolean  durable;
+        boolean  exclusively;
+        boolean  fresh;
+        boolean  locked;
+        boolean  result;
 
-        if (resource == null) resource = new Resource(uri);
+        node    = this.locate(uri, true);
+        durable = this.tokens.containsKey(signature);
+        
+        synchronized (node) {
+        
+            //exklusive Sperren werden mit ungerader Epoche eingerichtet und
+            //erst nach dem Veroeffentlichen im Knoten wieder gerade, womit
+            //die Pruefung einfacher Sperren diese nicht uebersehen kann
+            if (exclusive) this.epoch.incrementAndGet();
+        
+            try {
 
-        if (!resource.lock(signature, exclusive)) return false;
+                resource    = node.resource;
+                locked      = resource != null;
+                exclusively = locked && resource.isLocked(true);
+            
+                if (resource == null) resource = new Resource(uri);
+            
+                fresh  = !resource.isLocked(signature);
+                result = resource.lock(signature, exclusive);
+            
+                if (result) {
+                
+                    node.resource = resource;
+                
+                    //dauerhafte Sperren gelten nur fuer einen Pfad und werden
+                    //direkt ueber das Verzeichnis der Sperrkennungen gefuehrt
+                    if (!durable) this.index(signature).add(resource);
+                
+                    //der Ablauf wird nur fuer neue Sperreintraege eingerichtet,
+                    //dauerhafte Sperren laufen mit eigener Lebensdauer ab
+                    if (fresh && this.wheel != null && !durable) this.wheel.schedule(resource.getEntry(signature));
+                }
+            
+                node.update(locked, exclusively);
 
-        this.resources.put(uri, resource);
+            } finally {
 
-        if (exclusive) this.exclusive.add(uri);
+                if (exclusive) this.epoch.incrementAndGet();
+            }
+        }
+        
+        //neue Knoten ohne Sperre werden spaeter wieder entfernt
+        if (!locked && !result) this.released.add(node);
 
-        return true;
+        return result;
     }
     
     /**
@@ -210,7 +497,7 @@ public class Manager {
      *  @param  uri       Pfad der Ressource als URI
      *  @param  signature eindeutige Transaktionskennung
      */
-    public synchronized void unlock(String uri, String signature) {
+    public void unlock(String uri, String signature) {
         
         this.unlock(uri, signature, false);
     }
@@ -225,23 +512,194 @@ public class Manager {
      *  @param clear      <code>true</code> entfernt alle Sperren zur
      *                    angegebenen Signatur 
      */
-    public synchronized void unlock(String uri, String signature, boolean clear) {
-
-        Resource resource;
+    public void unlock(String uri, String signature, boolean clear) {
 
         if (signature == null || signature.trim().length() == 0) return;
 
-        uri = Manager.optimizeUri(uri);
-
-        resource = this.resources.get(uri);
+        this.release(Manager.optimizeUri(uri), signature, clear, null);
+    }
+    
+    /**
+     *  Hebt den abgelaufenen Sperreintrag auf, sofern dieser noch besteht.
+     *  Hat die Transaktion vom Sperreintrag innerhalb der Lebensdauer eine
+     *  Aktivit&auml;t gemeldet, z.B. bei der &Uuml;bertragung gr&ouml;sserer
+     *  Inhalte, beginnt die Lebensdauer ab der letzten Aktivit&auml;t neu.
+     *  Ohne Aktivit&auml;t gilt die Transaktion als verwaist, womit der
+     *  Sperreintrag aufgehoben und die Aktivit&auml;t verworfen wird.
+     *  @param entry abgelaufener Sperreintrag
+     */
+    void expire(Entry entry) {
+        
+        Long timing;
+        
+        timing = this.activities.get(entry.getSignature());
 
-        if (resource == null) return;
+        //das Timer-Wheel hat den Sperreintrag bereits ausgetragen, womit der
+        //Zeitpunkt ohne Konflikt mit dem Segment erneuert werden kann
+        if (timing != null && timing.longValue() +this.expiration > System.currentTimeMillis()) {
+            
+            entry.refresh(timing.longValue());
+            
+            if (this.wheel != null) this.wheel.schedule(entry);
+            
+            return;
+        }
+        
+        if (timing != null) this.activities.remove(entry.getSignature(), timing);
+        
+        if (this.release(entry.getUri(), entry.getSignature(), true, entry)) this.expirations.incrementAndGet();
+    }
+    
+    /**
+     *  Meldet eine Aktivit&auml;t der Transaktion, womit deren
+     *  Sperreintr&auml;ge beim Ablauf erneuert werden. Transaktionen, welche
+     *  l&auml;nger als die Lebensdauer keine Aktivit&auml;t melden, gelten als
+     *  verwaist. Ohne begrenzte Lebensdauer hat der Aufruf keine Wirkung.
+     *  @param signature Transaktionskennung
+     */
+    public void touch(String signature) {
+        
+        if (this.wheel == null || signature == null) return;
+        
+        this.activities.put(signature, Long.valueOf(System.currentTimeMillis()));
+    }
+    
+    /**
+     *  Verwirft die Aktivit&auml;t der beendeten Transaktion.
+     *  @param signature Transaktionskennung
+     */
+    public void dismiss(String signature) {
+        
+        if (signature != null) this.activities.remove(signature);
+    }
+    
+    /**
+     *  Verwirft die Aktivit&auml;ten aller Transaktionen, welche l&auml;nger
+     *  als die Lebensdauer keine Aktivit&auml;t gemeldet haben. Damit bleiben
+     *  auch von nicht beendeten Transaktionen ohne Sperreintr&auml;ge keine
+     *  Aktivit&auml;ten dauerhaft bestehen.
+     *  @param time aktueller Zeitpunkt in Millisekunden
+     */
+    void purge(long time) {
+        
+        Iterator<Long> iterator;
+        
+        for (iterator = this.activities.values().iterator(); iterator.hasNext();) {
+            
+            if (iterator.next().longValue() +this.expiration <= time) iterator.remove();
+        }
+    }
+    /**
+     *  Hebt die Sperren zur angegebenen Signatur f&uuml;r die per
+     *  vereinfachtem Pfad angegebene Ressource auf. Mit Angabe eines
+     *  Sperreintrags erfolgt dies nur, wenn dieser noch der aktuelle
+     *  Sperreintrag zur Signatur ist.
+     *  @param  uri       vereinfachter Pfad der Ressource als URI
+     *  @param  signature eindeutige Transaktionskennung
+     *  @param  clear     <code>true</code> entfernt alle Sperren zur
+     *                    angegebenen Signatur
+     *  @param  entry     erwarteter Sperreintrag oder <code>null</code>
+     *  @return <code>true</code>, wenn eine Sperre aufgehoben wurde
+     */
+    private boolean release(String uri, String signature, boolean clear, Entry entry) {
 
-        resource.unlock(signature, clear);
+        Entry         current;
+        Node          node;
+        Resource      resource;
+        Set<Resource> resources;
+        
+        boolean       exclusively;
 
-        if (!resource.isLocked(true) && this.exclusive.contains(uri)) this.exclusive.remove(uri);
+        this.guard.readLock().lock();
+        
+        try {
 
-        if (!resource.isLocked()) this.resources.remove(uri);
+            node = this.locate(uri, false);
+    
+            if (node == null) return false;
+            
+            synchronized (node) {
+                
+                resource = node.resource;
+                
+                if (resource == null) return false;
+                
+                current = resource.getEntry(signature);
+                
+                if (current == null || (entry != null && entry != current)) return false;
+                
+                exclusively = resource.isLocked(true);
+        
+                resource.unlock(signature, clear);
+                
+                if (!resource.isLocked(signature)) {
+                    
+                    resources = this.signatures.get(signature);
+                
+                    //ohne weitere Sperren wird die Transaktionskennung entfernt
+                    if (resources != null && resources.remove(resource) && resources.isEmpty()) this.signatures.remove(signature, resources);
+                    
+                    if (this.wheel != null) this.wheel.cancel(current);
+                }
+        
+                if (!resource.isLocked()) node.resource = null;
+                
+                node.update(true, exclusively);
+                
+                if (node.resource != null) return true;
+            }
+            
+            this.released.add(node);
+            
+        } finally {
+            
+            this.guard.readLock().unlock();
+        }
+        
+        //leere Knoten werden nur ohne Wartezeit entfernt, sonst mit der
+        //naechsten exklusiven Sperre
+        if (!this.guard.writeLock().tryLock()) return true;
+        
+        try {this.prune();
+        } finally {
+            
+            this.guard.writeLock().unlock();
+        }
+        
+        return true;
+    }
+    
+    /**
+     *  R&uuml;ckgabe vom Verzeichnis der Ressourcen zur angegebenen
+     *  Transaktionskennung. Ist dieses noch nicht vorhanden, wird es angelegt.
+     *  @param  signature eindeutige Transaktionskennung
+     *  @return das Verzeichnis der Ressourcen zur Transaktionskennung
+     */
+    private Set<Resource> index(String signature) {
+        
+        Set<Resource> resources;
+        
+        resources = this.signatures.get(signature);
+        
+        if (resources != null) return resources;
+        
+        resources = Collections.newSetFromMap(new ConcurrentHashMap<Resource, Boolean>());
+        
+        if (this.signatures.putIfAbsent(signature, resources) != null) resources = this.signatures.get(signature);
+        
+        return resources;
+    }
+    
+    /**
+     *  Entfernt die Knoten, deren Ressource entfernt wurde, sowie leere
+     *  &uuml;bergeordnete Knoten. Der Aufruf erfolgt nur unter der exklusiven
+     *  Sperre vom Manager.
+     */
+    private void prune() {
+        
+        Node node;
+        
+        while ((node = this.released.poll()) != null) node.prune();
     }
     
     /**
@@ -252,15 +710,20 @@ public class Manager {
      *  @param  signature eindeutige Transaktionskennung
      *  @return die URIs der ermittelten Sperren, sonst <code>null</code>
      */
-    public synchronized String[] getLocks(String signature) {
+    public String[] getLocks(String signature) {
         
-        List<String> locks;
+        List<String>  locks;
+        Set<Resource> resources;
         
         if (signature == null || signature.trim().length() == 0) return null;
         
+        resources = this.signatures.get(signature);
+        
+        if (resources == null) return null;
+        
         locks = new ArrayList<String>();
         
-        for (Resource resource : this.resources.values()) {
+        for (Resource resource : resources) {
             
             if (resource.isLocked(signature)) locks.add(resource.getUri());
         }
@@ -268,6 +731,344 @@ public class Manager {
         return locks.isEmpty() ? null : locks.toArray(new String[0]);
     }
 
+    /**
+     *  Richtet eine dauerhafte Sperre (WebDAV Lock) f&uuml;r die per URI
+     *  angegebene Ressource ein. Die Sperre wird mit einer neuen Sperrkennung
+     *  als Transaktionskennung eingetragen. R&uuml;ckgabe <code>null</code>,
+     *  wenn eine bestehende dauerhafte Sperre auf dem Pfad, dar&uuml;ber oder
+     *  bei unbegrenzter Tiefe darunter die Sperre verhindert. Exklusive
+     *  Sperren verhindern dabei jede weitere, einfache Sperren nur exklusive
+     *  Sperren.
+     *  @param  uri       Pfad der Ressource als URI
+     *  @param  exclusive <code>true</code> bei exklusiver Sperre
+     *  @param  deep      <code>true</code> bei unbegrenzter Tiefe
+     *  @param  owner     Eigent&uuml;mer der Sperre oder <code>null</code>
+     *  @param  timeout   Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                    Begrenzung
+     *  @return die eingerichtete Sperre, sonst <code>null</code>
+     */
+    public Token acquire(String uri, boolean exclusive, boolean deep, String owner, long timeout) {
+        
+        List<Token> tokens;
+        Token       token;
+        String      path;
+        
+        path = Manager.optimizeUri(uri);
+        
+        this.guard.writeLock().lock();
+        
+        try {
+            
+            this.prune();
+            
+            //abgelaufene Sperren werden mit der Einrichtung bereinigt, jedoch
+            //nur im Abstand vom Intervall der Bereinigung
+            if (System.currentTimeMillis() >= this.sweep) {
+                
+                for (Token entry : this.tokens.values()) {
+                    
+                    if (entry.isExpired()) this.revoke(entry);
+                }
+                
+                this.sweep = System.currentTimeMillis() +Manager.SWEEP;
+            }
+            
+            tokens = new ArrayList<Token>();
+            
+            this.collect(path, deep, tokens);
+            
+            for (Token entry : tokens) {
+                
+                if (exclusive || entry.isExclusive()) return null;
+            }
+            
+            token = new Token(uri, exclusive, deep, owner, timeout);
+            
+            this.tokens.put(token.getToken(), token);
+            
+            this.register(path, token.getToken(), false);
+            
+            if (this.journal != null) this.journal.acquire(token);
+            
+            return token;
+            
+        } finally {
+            
+            this.guard.writeLock().unlock();
+        }
+    }
+    
+    /**
+     *  Erneuert die dauerhafte Sperre zur angegebenen Sperrkennung mit der
+     *  angegebenen Lebensdauer. R&uuml;ckgabe <code>null</code>, wenn die
+     *  Sperre nicht (mehr) besteht.
+     *  @param  token   Sperrkennung
+     *  @param  timeout Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                  Begrenzung
+     *  @return die erneuerte Sperre, sonst <code>null</code>
+     */
+    public Token refresh(String token, long timeout) {
+        
+        Token entry;
+        
+        entry = token == null ? null : this.tokens.get(token);
+        
+        if (entry == null) return null;
+        
+        if (entry.isExpired()) {this.revoke(entry); return null;}
+        
+        entry.refresh(timeout);
+        
+        if (this.journal != null) this.journal.refresh(entry);
+        
+        return entry;
+    }
+    
+    /**
+     *  Hebt die dauerhafte Sperre zur angegebenen Sperrkennung auf.
+     *  @param  token Sperrkennung
+     *  @return <code>true</code>, wenn die Sperre aufgehoben wurde
+     */
+    public boolean revoke(String token) {
+        
+        Token entry;
+        
+        entry = token == null ? null : this.tokens.get(token);
+        
+        return entry != null && this.revoke(entry);
+    }
+    
+    /**
+     *  Hebt alle dauerhaften Sperren der per URI angegebenen Ressource und
+     *  der darunter liegenden Ressourcen auf. Sperren &uuml;bergeordneter
+     *  Ressourcen bleiben bestehen.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return die Anzahl der aufgehobenen Sperren
+     */
+    public int revokeAll(String uri) {
+        
+        List<Token> tokens;
+        
+        int         count;
+        
+        tokens = new ArrayList<Token>();
+        uri    = Manager.optimizeUri(uri);
+        
+        if (this.tokens.isEmpty()) return 0;
+        
+        this.guard.readLock().lock();
+        
+        try {this.collect(uri, true, tokens);
+        } finally {
+            
+            this.guard.readLock().unlock();
+        }
+        
+        count = 0;
+        
+        for (Token token : tokens) {
+            
+            if (Manager.optimizeUri(token.getUri()).startsWith(uri) && this.revoke(token)) count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     *  Hebt die angegebene dauerhafte Sperre auf.
+     *  @param  token Sperre
+     *  @return <code>true</code>, wenn die Sperre aufgehoben wurde
+     */
+    private boolean revoke(Token token) {
+        
+        if (!this.tokens.remove(token.getToken(), token)) return false;
+        
+        this.release(Manager.optimizeUri(token.getUri()), token.getToken(), true, null);
+        
+        if (this.journal != null) this.journal.revoke(token);
+        
+        return true;
+    }
+    
+    /**
+     *  Ermittelt die dauerhaften Sperren, welche f&uuml;r die per URI
+     *  angegebene Ressource gelten. Das sind die Sperren der Ressource und die
+     *  Sperren &uuml;bergeordneter Ressourcen mit unbegrenzter Tiefe.
+     *  @param  uri Pfad der Ressource als URI
+     *  @return die f&uuml;r die Ressource geltenden Sperren
+     */
+    public Token[] getTokens(String uri) {
+        
+        return this.lookup(uri, false).toArray(new Token[0]);
+    }
+    
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn die per URI angegebene Ressource
+     *  oder darunter liegende Ressourcen durch dauerhafte Sperren gesperrt
+     *  sind, deren Sperrkennung nicht &uuml;bermittelt wurde. Ohne dauerhafte
+     *  Sperren erfolgt die Pr&uuml;fung ohne Sperre vom Manager.
+     *  @param  uri    Pfad der Ressource als URI
+     *  @param  tokens &uuml;bermittelte Sperrkennungen oder <code>null</code>
+     *  @return <code>true</code> bei fehlender Sperrkennung
+     */
+    public boolean isClaimed(String uri, Collection<String> tokens) {
+        
+        for (Token token : this.lookup(uri, true)) {
+            
+            if (tokens == null || !tokens.contains(token.getToken())) return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     *  Ermittelt die g&uuml;ltigen dauerhaften Sperren f&uuml;r die per URI
+     *  angegebene Ressource unter der Sperre vom Manager. Dabei gefundene
+     *  abgelaufene Sperren werden aufgehoben.
+     *  @param  uri  Pfad der Ressource als URI
+     *  @param  deep <code>true</code> ber&uuml;cksichtigt auch die Sperren
+     *               darunter liegender Ressourcen
+     *  @return die g&uuml;ltigen dauerhaften Sperren
+     */
+    private List<Token> lookup(String uri, boolean deep) {
+        
+        Iterator<Token> iterator;
+        List<Token>     tokens;
+        Token           token;
+        
+        tokens = new ArrayList<Token>();
+        
+        if (this.tokens.isEmpty()) return tokens;
+        
+        this.guard.readLock().lock();
+        
+        try {this.collect(Manager.optimizeUri(uri), deep, tokens);
+        } finally {
+            
+            this.guard.readLock().unlock();
+        }
+        
+        for (iterator = tokens.iterator(); iterator.hasNext();) {
+            
+            token = iterator.next();
+            
+            if (!token.isExpired()) continue;
+            
+            iterator.remove();
+            
+            this.revoke(token);
+        }
+        
+        return tokens;
+    }
+    
+    /**
+     *  Ermittelt die dauerhaften Sperren f&uuml;r die per vereinfachtem Pfad
+     *  angegebene Ressource entlang vom Pfad und optional &uuml;ber die
+     *  gesperrten Teilb&auml;ume darunter. Der Aufruf erfolgt nur unter der
+     *  Sperre vom Manager.
+     *  @param uri    vereinfachter Pfad der Ressource als URI
+     *  @param deep   <code>true</code> ber&uuml;cksichtigt auch die Sperren
+     *                darunter liegender Ressourcen
+     *  @param tokens Liste der ermittelten Sperren
+     */
+    private void collect(String uri, boolean deep, List<Token> tokens) {
+        
+        ArrayDeque<Node> stack;
+        Node             node;
+        
+        int              cursor;
+        int              offset;
+        
+        if (this.tokens.isEmpty()) return;
+        
+        //uebergeordnete Sperren gelten nur mit unbegrenzter Tiefe
+        for (node = this.root, cursor = 0; cursor < uri.length(); cursor = offset +1) {
+            
+            offset = uri.indexOf('/', cursor);
+            
+            if (offset < 0) offset = uri.length();
+            
+            if (offset <= cursor) continue;
+            
+            this.collect(node, true, tokens);
+            
+            node = node.getChild(uri.substring(cursor, offset), false);
+            
+            if (node == null) return;
+        }
+        
+        if (!deep) {this.collect(node, false, tokens); return;}
+        
+        stack = new ArrayDeque<Node>();
+        
+        for (stack.push(node); (node = stack.poll()) != null;) {
+            
+            this.collect(node, false, tokens);
+            
+            if (node.children == null) continue;
+            
+            for (Node child : node.children.values()) {
+                
+                if (child.resources.get() > 0) stack.push(child);
+            }
+        }
+    }
+    
+    /**
+     *  Ermittelt die dauerhaften Sperren der Ressource vom angegebenen Knoten.
+     *  @param node   Knoten
+     *  @param deep   <code>true</code> ber&uuml;cksichtigt nur Sperren mit
+     *                unbegrenzter Tiefe
+     *  @param tokens Liste der ermittelten Sperren
+     */
+    private void collect(Node node, boolean deep, List<Token> tokens) {
+        
+        Resource resource;
+        Token    token;
+        
+        resource = node.resource;
+        
+        if (resource == null) return;
+        
+        for (String signature : resource.getSignatures()) {
+            
+            token = this.tokens.get(signature);
+            
+            if (token != null && (token.isDeep() || !deep)) tokens.add(token);
+        }
+    }
+
+    /**
+     *  R&uuml;ckgabe der Anzahl aktuell gesperrter Ressourcen.
+     *  @return die Anzahl aktuell gesperrter Ressourcen
+     */
+    public int getSize() {
+        
+        return this.root.resources.get();
+    }
+    
+    /**
+     *  R&uuml;ckgabe der Anzahl abgelaufener und damit automatisch
+     *  aufgehobener Sperreintr&auml;ge.
+     *  @return die Anzahl abgelaufener Sperreintr&auml;ge
+     */
+    public long getExpirations() {
+        
+        return this.expirations.get();
+    }
+    
+    /**
+     *  Beendet den Manager und damit den Ablauf der Sperreintr&auml;ge sowie
+     *  das Journal. Die eingerichteten Sperren bleiben erhalten.
+     */
+    public void close() {
+        
+        if (this.wheel != null) this.wheel.close();
+        
+        if (this.journal != null) this.journal.close();
+    }
+
     /**
      *  R&uuml;ckgabe der formatierten Information zur Manager als String.
      *  Der Zeilenumbruch erfolgt abh&auml;ngig vom aktuellen Betriebssystem.
@@ -284,8 +1085,10 @@ public class Manager {
         //das Paket der Klasse wird ermittelt
         result = new StringBuilder("[").append(getClass().getName()).append("]").append(string);
         
-        result.append("  resources = ").append(this.resources.size()).append("x").append(string);
-        result.append("  exclusive = ").append(this.exclusive.size()).append("x").append(string);
+        result.append("  resources = ").append(this.root.resources.get()).append("x").append(string);
+        result.append("  exclusive = ").append(this.root.exclusives.get()).append("x").append(string);
+        result.append("  tokens    = ").append(this.tokens.size()).append("x").append(string);
+        result.append("  expired   = ").append(this.expirations.get()).append("x").append(string);
 
         return result.toString();        
     }
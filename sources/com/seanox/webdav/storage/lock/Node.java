@@ -0,0 +1,168 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Module for Seanox Devwex
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage.lock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Node stellt einen Knoten im Verzeichnisbaum der Sperren zur Verf&uuml;gung.
+ *  Jeder Knoten entspricht einem Segment vom Pfad und h&auml;lt die Ressource
+ *  mit den Sperren zum Pfad sowie die Anzahl der gesperrten und exklusiv
+ *  gesperrten Ressourcen im Teilbaum. Damit lassen sich Konflikte mit
+ *  &uuml;bergeordneten Ressourcen entlang vom Pfad und mit untergeordneten
+ *  Ressourcen nur &uuml;ber gesperrte Teilb&auml;ume ermitteln. Das Objekt
+ *  wird ausschliesslich intern vom Lock-Manager verwendet. Die Knoten und
+ *  Z&auml;hler k&ouml;nnen parallel gelesen und erweitert werden, die
+ *  Ressource vom Knoten wird nur unter der Sperre vom Knoten ge&auml;ndert
+ *  und Knoten werden nur unter der exklusiven Sperre vom Manager
+ *  entfernt.<br>
+ *  <br>
+ *  Node 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Node {
+
+    /** Name vom Segment */
+    final String name;
+
+    /** &uuml;bergeordneter Knoten */
+    final Node parent;
+
+    /** untergeordnete Knoten (Segment | Knoten) */
+    volatile Map<String, Node> children;
+
+    /** Ressource mit den Sperren zum Pfad */
+    volatile Resource resource;
+
+    /** Anzahl der gesperrten Ressourcen im Teilbaum */
+    final AtomicInteger resources;
+
+    /** Anzahl der exklusiv gesperrten Ressourcen im Teilbaum */
+    final AtomicInteger exclusives;
+
+    /**
+     *  Konstruktor, richtet den Knoten ein.
+     *  @param name   Name vom Segment
+     *  @param parent &uuml;bergeordneter Knoten
+     */
+    Node(String name, Node parent) {
+
+        this.name       = name;
+        this.parent     = parent;
+        this.resources  = new AtomicInteger();
+        this.exclusives = new AtomicInteger();
+    }
+
+    /**
+     *  R&uuml;ckgabe vom untergeordneten Knoten zum angegebenen Segment.
+     *  @param  name   Name vom Segment
+     *  @param  create <code>true</code> legt einen nicht existierenden Knoten
+     *                 an
+     *  @return der untergeordnete Knoten, sonst <code>null</code>
+     */
+    Node getChild(String name, boolean create) {
+
+        Map<String, Node> children;
+        Node              node;
+
+        children = this.children;
+        node     = children == null ? null : children.get(name);
+
+        if (node != null || !create) return node;
+
+        synchronized (this) {
+
+            if (this.children == null) this.children = new ConcurrentHashMap<String, Node>();
+
+            node = this.children.get(name);
+
+            if (node == null) this.children.put(name, node = new Node(name, this));
+        }
+
+        return node;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn die Ressource vom Knoten durch
+     *  eine andere als die angegebene Transaktionskennung gesperrt ist.
+     *  @param  signature Transaktionskennung
+     *  @param  exclusive <code>true</code> pr&uuml;ft auf exklusive Sperrung
+     *  @return <code>true</code>, wenn die Ressource durch eine andere
+     *          Transaktionskennung gesperrt ist
+     */
+    boolean isLocked(String signature, boolean exclusive) {
+
+        if (this.resource == null) return false;
+
+        if (exclusive && !this.resource.isLocked(true)) return false;
+
+        return !this.resource.isLocked(signature);
+    }
+
+    /**
+     *  Aktualisiert die Anzahl der gesperrten Ressourcen nach einer
+     *  &Auml;nderung der Ressource vom Knoten bis zum Wurzelknoten.
+     *  @param locked    vorheriger Zustand der Sperrung
+     *  @param exclusive vorheriger Zustand der exklusiven Sperrung
+     */
+    void update(boolean locked, boolean exclusive) {
+
+        Node node;
+
+        int  delta;
+        int  deltas;
+
+        delta  = (this.resource != null ? 1 : 0) -(locked ? 1 : 0);
+        deltas = (this.resource != null && this.resource.isLocked(true) ? 1 : 0) -(exclusive ? 1 : 0);
+
+        if (delta == 0 && deltas == 0) return;
+
+        for (node = this; node != null; node = node.parent) {
+
+            if (delta  != 0) node.resources.addAndGet(delta);
+            if (deltas != 0) node.exclusives.addAndGet(deltas);
+        }
+    }
+
+    /**
+     *  Entfernt den Knoten und &uuml;bergeordnete Knoten ohne gesperrte
+     *  Ressourcen im Teilbaum. Der Aufruf darf nur unter der exklusiven Sperre
+     *  vom Manager erfolgen.
+     */
+    void prune() {
+
+        Node node;
+
+        for (node = this; node.parent != null && node.resource == null && node.resources.get() <= 0; node = node.parent) {
+
+            if (node.parent.children == null || node.parent.children.get(node.name) != node) break;
+
+            node.parent.children.remove(node.name);
+        }
+    }
+}
\ No newline at end of file
@@ -21,14 +21,16 @@
  */
 package com.seanox.webdav.storage.lock;
 
-import java.util.Hashtable;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *  Resource stellt eine Verwaltung von Sperreintr&auml;gen zu einem als URI
  *  angegeben Pfad zur Verf&uuml;gung. Das Objekt wird ausschliesslich intern
  *  vom Lock-Manager verwendet um die Sperreintr&auml;ge zu einem Pfad zu
- *  verwalten.<br>
+ *  verwalten. Die Abfragen erfolgen ohne Sperre, &Auml;nderungen werden vom
+ *  Lock-Manager je Pfad unter der Sperre vom Knoten ausgef&uuml;hrt.<br>
  *  <br>
  *  Resource 1.2013.0327<br>
  *  Copyright (C) 2013 Seanox Software Solutions<br>
@@ -55,7 +57,7 @@ class Resource {
      */
     Resource(String uri) {
 
-        this.locks = new Hashtable<String, Entry>();
+        this.locks = new ConcurrentHashMap<String, Entry>();
 
         this.uri = uri;
     }
@@ -64,7 +66,7 @@ class Resource {
      *  R&uuml;ckgabe <code>true</code>, bei Sperrung der Ressource.
      *  @return <code>true</code>, bei Sperrung der Ressource
      */
-    synchronized boolean isLocked() {
+    boolean isLocked() {
 
         return !this.locks.isEmpty();
     }
@@ -76,7 +78,7 @@ class Resource {
      *  @return <code>true</code>, bei Sperrung der Ressource durch die
      *          angegebene Transaktionskennung
      */
-    synchronized boolean isLocked(String signature) {
+    boolean isLocked(String signature) {
         
         return this.locks.get(signature) != null;
     }    
@@ -86,7 +88,7 @@ class Resource {
      *  @param  exclusive <code>true</code> p&uuml;ft auf exklusive Sperrung
      *  @return <code>true</code>, bei exklusiver Sperrung der Ressource
      */
-    synchronized boolean isLocked(boolean exclusive) {
+    boolean isLocked(boolean exclusive) {
 
         if (this.locks.isEmpty()) return false;
 
@@ -101,13 +103,33 @@ class Resource {
      *  @return <code>true</code>, bei exklusiver Sperrung der Ressource
      *          durch die angegebene Transaktionskennung.
      */
-    synchronized boolean isLocked(String signature, boolean exclusive) {
+    boolean isLocked(String signature, boolean exclusive) {
 
         if (this.locks.isEmpty()) return false;
 
         return (!exclusive || (exclusive && this.exclusive != null));
     }    
 
+    /**
+     *  R&uuml;ckgabe vom Sperreintrag zur angegebenen Transaktionskennung.
+     *  @param  signature Transaktionskennung
+     *  @return der Sperreintrag zur Transaktionskennung, sonst
+     *          <code>null</code>
+     */
+    Entry getEntry(String signature) {
+        
+        return this.locks.get(signature);
+    }
+
+    /**
+     *  R&uuml;ckgabe der Transaktionskennungen der registrierten Sperren.
+     *  @return die Transaktionskennungen der registrierten Sperren
+     */
+    Set<String> getSignatures() {
+        
+        return this.locks.keySet();
+    }
+
     /**
      *  R&uuml;ckgabe vom Pfad der Ressource als URI.
      *  @return der Pfad der Ressource als URI
@@ -125,7 +147,7 @@ class Resource {
      *  @return <code>true</code>, wenn die Sperre gesetzt werden konnte
      *  
      */
-    synchronized boolean lock(String signature, boolean exclusive) {
+    boolean lock(String signature, boolean exclusive) {
         
         Entry entry;
 
@@ -145,7 +167,7 @@ class Resource {
      *  Entfernt die angegebene Sperre zur angegebenen Transaktionskennung.
      *  @param signature Transaktionskennung
      */
-    synchronized void unlock(String signature) {
+    void unlock(String signature) {
         
         this.unlock(signature, false);
     }
@@ -156,7 +178,7 @@ class Resource {
      *  @param clear     <code>true</code> entfernt alle Sperren zur
      *                   angegebenen Signatur 
      */
-    synchronized void unlock(String signature, boolean clear) {
+    void unlock(String signature, boolean clear) {
         
         Entry entry;
 
@@ -0,0 +1,236 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Module for Seanox Devwex
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage.lock;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ *  Token stellt eine dauerhafte Sperre (WebDAV Lock) mit Sperrkennung zur
+ *  Verf&uuml;gung. Die Sperrkennung wird im Lock-Manager als eigene
+ *  Transaktionskennung eingetragen, welche im Gegensatz zu den
+ *  Transaktionskennungen der Stores &uuml;ber den Request hinaus besteht, bis
+ *  die Sperre aufgehoben wird oder abgelaufen ist. Die Sperre wirkt als
+ *  Schreibsperre auf den Pfad und mit unbegrenzter Tiefe auf alle darunter
+ *  liegenden Ressourcen.<br>
+ *  <br>
+ *  Token 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+public class Token {
+
+    /** Sperrkennung (Lock-Token) */
+    private final String token;
+
+    /** Pfad als URI der gesperrten Ressource (Lock-Root) */
+    private final String uri;
+
+    /** Eigent&uuml;mer der Sperre */
+    private final String owner;
+
+    /** Option f&uuml;r eine exklusive Sperre */
+    private final boolean exclusive;
+
+    /** Option f&uuml;r eine Sperre mit unbegrenzter Tiefe */
+    private final boolean deep;
+
+    /** Lebensdauer der Sperre in Millisekunden */
+    private volatile long timeout;
+
+    /** Zeitpunkt vom Ablauf der Sperre */
+    private volatile long deadline;
+
+    /** Pr&auml;fix der Sperrkennungen */
+    public static final String PREFIX = "opaquelocktoken:";
+
+    /**
+     *  Konstruktor, richtet die Sperre mit einer neuen Sperrkennung ein.
+     *  @param uri       Pfad als URI
+     *  @param exclusive Option <code>true</code> f&uuml;r eine exklusive Sperre
+     *  @param deep      Option <code>true</code> f&uuml;r unbegrenzte Tiefe
+     *  @param owner     Eigent&uuml;mer der Sperre oder <code>null</code>
+     *  @param timeout   Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                   Begrenzung
+     */
+    Token(String uri, boolean exclusive, boolean deep, String owner, long timeout) {
+
+        this.token     = Token.PREFIX.concat(UUID.randomUUID().toString());
+        this.uri       = uri;
+        this.exclusive = exclusive;
+        this.deep      = deep;
+        this.owner     = owner;
+
+        this.refresh(timeout);
+    }
+
+    /**
+     *  Konstruktor, stellt eine bestehende Sperre aus dem Journal wieder her.
+     *  @param token     Sperrkennung
+     *  @param uri       Pfad als URI
+     *  @param exclusive Option <code>true</code> f&uuml;r eine exklusive Sperre
+     *  @param deep      Option <code>true</code> f&uuml;r unbegrenzte Tiefe
+     *  @param owner     Eigent&uuml;mer der Sperre oder <code>null</code>
+     *  @param timeout   Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                   Begrenzung
+     *  @param deadline  Zeitpunkt vom Ablauf
+     */
+    Token(String token, String uri, boolean exclusive, boolean deep, String owner, long timeout, long deadline) {
+
+        this.token     = token;
+        this.uri       = uri;
+        this.exclusive = exclusive;
+        this.deep      = deep;
+        this.owner     = owner;
+
+        this.restore(timeout, deadline);
+    }
+
+    /**
+     *  Setzt Lebensdauer und Zeitpunkt vom Ablauf der Sperre aus dem Journal.
+     *  @param timeout  Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                  Begrenzung
+     *  @param deadline Zeitpunkt vom Ablauf
+     */
+    void restore(long timeout, long deadline) {
+
+        this.timeout  = timeout;
+        this.deadline = deadline;
+    }
+
+    /**
+     *  Erneuert die Sperre mit der angegebenen Lebensdauer.
+     *  @param timeout Lebensdauer in Millisekunden, <code>0</code> ohne
+     *                 Begrenzung
+     */
+    void refresh(long timeout) {
+
+        this.timeout  = Math.max(0, timeout);
+        this.deadline = this.timeout > 0 ? System.currentTimeMillis() +this.timeout : Long.MAX_VALUE;
+    }
+
+    /**
+     *  R&uuml;ckgabe der Sperrkennung.
+     *  @return die Sperrkennung
+     */
+    public String getToken() {
+
+        return this.token;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Pfad der gesperrten Ressource als URI.
+     *  @return der Pfad der gesperrten Ressource als URI
+     */
+    public String getUri() {
+
+        return this.uri;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Eigent&uuml;mer der Sperre.
+     *  @return der Eigent&uuml;mer der Sperre, sonst <code>null</code>
+     */
+    public String getOwner() {
+
+        return this.owner;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> bei exklusiver Sperre.
+     *  @return <code>true</code> bei exklusiver Sperre
+     */
+    public boolean isExclusive() {
+
+        return this.exclusive;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code> bei Sperre mit unbegrenzter Tiefe.
+     *  @return <code>true</code> bei Sperre mit unbegrenzter Tiefe
+     */
+    public boolean isDeep() {
+
+        return this.deep;
+    }
+
+    /**
+     *  R&uuml;ckgabe der Lebensdauer der Sperre in Millisekunden.
+     *  @return die Lebensdauer in Millisekunden, <code>0</code> ohne
+     *          Begrenzung
+     */
+    public long getTimeout() {
+
+        return this.timeout;
+    }
+
+    /**
+     *  R&uuml;ckgabe vom Zeitpunkt des Ablaufs der Sperre.
+     *  @return der Zeitpunkt des Ablaufs, <code>Long.MAX_VALUE</code> ohne
+     *          Begrenzung
+     */
+    public long getDeadline() {
+
+        return this.deadline;
+    }
+
+    /**
+     *  R&uuml;ckgabe <code>true</code>, wenn die Sperre abgelaufen ist.
+     *  @return <code>true</code>, wenn die Sperre abgelaufen ist
+     */
+    public boolean isExpired() {
+
+        return this.deadline <= System.currentTimeMillis();
+    }
+
+    /**
+     *  R&uuml;ckgabe der formatierten Information zum Token als String.
+     *  Der Zeilenumbruch erfolgt abh&auml;ngig vom aktuellen Betriebssystem.
+     *  @return die formatierte Information zum Token als String
+     */
+    public String toString() {
+
+        String        string;
+        StringBuilder result;
+
+        //der Zeilenumbruch wird entsprechend dem System ermittelt
+        string = System.getProperty("line.separator", "\r\n");
+
+        //das Paket der Klasse wird ermittelt
+        result = new StringBuilder("[").append(this.getClass().getName()).append("]").append(string);
+
+        result.append("  token     = ").append(this.token).append(string);
+        result.append("  uri       = ").append(this.uri).append(string);
+        result.append("  owner     = ").append(this.owner).append(string);
+        result.append("  exclusive = ").append(this.exclusive).append(string);
+        result.append("  deep      = ").append(this.deep).append(string);
+        result.append("  timeout   = ").append(this.timeout).append(string);
+        result.append("  deadline  = ").append(this.deadline == Long.MAX_VALUE ? "infinite"
+                : new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(this.deadline))).append(string);
+
+        return result.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+/**
+ *  LIZENZBEDINGUNGEN - Seanox Software Solutions ist ein Open-Source-Projekt,
+ *  im Folgenden Seanox Software Solutions oder kurz Seanox genannt.
+ *  Diese Software unterliegt der Version 2 der GNU General Public License.
+ *
+ *  WebDAV, Module for Seanox Devwex
+ *  Copyright (C) 2013 Seanox Software Solutions
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of version 2 of the GNU General Public License as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.seanox.webdav.storage.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  Wheel stellt eine zeitgesteuerte Bereinigung abgelaufener
+ *  Sperreintr&auml;ge als Timer-Wheel zur Verf&uuml;gung. Die Sperreintr&auml;ge
+ *  werden nach dem Zeitpunkt vom Ablauf in Segmente (Slots) verteilt, welche
+ *  zyklisch im Takt der Aufl&ouml;sung abgearbeitet werden. Da alle
+ *  Sperreintr&auml;ge die gleiche Lebensdauer haben und das Rad diese
+ *  vollst&auml;ndig abdeckt, wird ein Sperreintrag beim Erreichen vom Segment
+ *  nur einmal gepr&uuml;ft. Das Einrichten und Aufheben erfolgt damit in
+ *  konstanter Zeit, die Bereinigung proportional zur Anzahl abgelaufener
+ *  Sperreintr&auml;ge. Das Objekt wird ausschliesslich intern vom
+ *  Lock-Manager verwendet.<br>
+ *  <br>
+ *  Wheel 1.2014.0207<br>
+ *  Copyright (C) 2014 Seanox Software Solutions<br>
+ *  Alle Rechte vorbehalten.
+ *
+ *  @author  Seanox Software Solutions
+ *  @version 1.2014.0207
+ */
+class Wheel extends Thread {
+
+    /** Manager der Sperreintr&auml;ge */
+    private final Manager manager;
+
+    /** Segmente mit den Sperreintr&auml;gen */
+    private final List<Set<Entry>> slots;
+
+    /** Lebensdauer der Sperreintr&auml;ge in Millisekunden */
+    private final long timeout;
+
+    /** Aufl&ouml;sung (Takt) in Millisekunden */
+    private final long tick;
+
+    /** Anzahl der Segmente */
+    private static final int SLOTS = 256;
+
+    /**
+     *  Konstruktor, richtet das Timer-Wheel als Daemon ein.
+     *  @param manager Manager der Sperreintr&auml;ge
+     *  @param timeout Lebensdauer der Sperreintr&auml;ge in Millisekunden
+     */
+    Wheel(Manager manager, long timeout) {
+
+        super("Wheel");
+
+        int loop;
+
+
+        this.manager = manager;
+        this.timeout = timeout;
+        this.tick    = Math.max(10, timeout / (Wheel.SLOTS -1) +1);
+        this.slots   = new ArrayList<Set<Entry>>(Wheel.SLOTS);
+
+        for (loop = 0; loop < Wheel.SLOTS; loop++) this.slots.add(Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>()));
+
+        this.setDaemon(true);
+    }
+
+    /**
+     *  Ermittelt das Segment zum Zeitpunkt vom Ablauf.
+     *  @param  deadline Zeitpunkt vom Ablauf in Millisekunden
+     *  @return das Segment zum Zeitpunkt
+     */
+    private Set<Entry> locate(long deadline) {
+
+        return this.slots.get((int)((deadline / this.tick) % Wheel.SLOTS));
+    }
+
+    /**
+     *  Richtet den Ablauf f&uuml;r den angegebenen Sperreintrag ein.
+     *  @param entry Sperreintrag
+     */
+    void schedule(Entry entry) {
+
+        this.locate(entry.getTiming() +this.timeout).add(entry);
+    }
+
+    /**
+     *  Hebt den Ablauf f&uuml;r den angegebenen Sperreintrag auf.
+     *  @param entry Sperreintrag
+     */
+    void cancel(Entry entry) {
+
+        this.locate(entry.getTiming() +this.timeout).remove(entry);
+    }
+
+    /**
+     *  Beendet das Timer-Wheel.
+     */
+    void close() {
+
+        this.interrupt();
+    }
+
+    /**
+     *  Arbeitet die Segmente im Takt der Aufl&ouml;sung ab und meldet
+     *  abgelaufene Sperreintr&auml;ge an den Manager, bis das Timer-Wheel
+     *  beendet wird.
+     */
+    public void run() {
+
+        long cursor;
+        long time;
+
+        for (cursor = System.currentTimeMillis() / this.tick; !this.isInterrupted();) {
+
+            try {Thread.sleep(this.tick -System.currentTimeMillis() % this.tick);
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            time = System.currentTimeMillis();
+
+            //abgearbeitet werden nur vollstaendig verstrichene Takte, verpasste
+            //Takte werden nachgeholt, maximal jedoch eine Umdrehung
+            for (cursor = Math.max(cursor, time / this.tick -Wheel.SLOTS); cursor < time / this.tick; cursor++) {
+
+                //einmal je Umdrehung werden die Aktivitaeten verwaister
+                //Transaktionen ohne Sperreintraege verworfen
+                if (cursor % Wheel.SLOTS == 0) this.manager.purge(time);
+
+                for (Entry entry : this.slots.get((int)(cursor % Wheel.SLOTS))) {
+
+                    if (entry.getTiming() +this.timeout > time) continue;
+
+                    if (this.slots.get((int)(cursor % Wheel.SLOTS)).remove(entry)) this.manager.expire(entry);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file